@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Servlet vs reactive search under the same load, against a slow Vahan stub.
+#
+# Starts the stub and one backend with the "reactive" profile (dev mode, no MongoDB needed) and a bounded
+# Tomcat pool, then fires CONCURRENCY simultaneous cache-miss searches at POST /vehicle/search and at
+# POST /vehicle/search/reactive.
+#
+# Usage (from backend/, JDK 21 on PATH): ./bench/bench-reactive.sh
+#   CONCURRENCY=400 STUB_DELAY=1.0 TOMCAT_MAX_THREADS=50 ./bench/bench-reactive.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+CONCURRENCY="${CONCURRENCY:-400}"
+STUB_DELAY="${STUB_DELAY:-1.0}"
+TOMCAT_MAX_THREADS="${TOMCAT_MAX_THREADS:-50}"
+STUB_PORT="${STUB_PORT:-9099}"
+APP_PORT="${APP_PORT:-8091}"
+JAR="$(ls target/ci-api-view-backend-*.jar 2>/dev/null | head -1 || true)"
+
+if [[ -z "$JAR" ]]; then
+  mvn -B -q package -DskipTests
+  JAR="$(ls target/ci-api-view-backend-*.jar | head -1)"
+fi
+
+python3 bench/slow_vahan_stub.py "$STUB_PORT" "$STUB_DELAY" &
+STUB_PID=$!
+DEV_MODE=true VAHAN_API_KEY=bench java -jar "$JAR" \
+  --spring.profiles.active=reactive \
+  --server.port="$APP_PORT" \
+  --vahan.api.base-url="http://127.0.0.1:$STUB_PORT/search" \
+  --app.rate-limit.per-second=1000000 \
+  --app.rate-limit.search-cooldown-ms=0 \
+  --server.tomcat.threads.max="$TOMCAT_MAX_THREADS" \
+  --logging.level.com.cars24=WARN \
+  > target/bench-reactive.log 2>&1 &
+APP_PID=$!
+trap 'kill "$APP_PID" "$STUB_PID" 2>/dev/null || true' EXIT
+
+TOKEN=""
+for _ in $(seq 1 120); do
+  TOKEN="$(curl -sf "http://localhost:$APP_PORT/api/dev/login" 2>/dev/null | python3 -c 'import json,sys; print(json.load(sys.stdin)["token"])' 2>/dev/null || true)"
+  [[ -n "$TOKEN" ]] && break
+  sleep 0.5
+done
+if [[ -z "$TOKEN" ]]; then
+  echo "backend did not start, see target/bench-reactive.log" >&2
+  exit 1
+fi
+
+echo "concurrency=$CONCURRENCY stub-delay=${STUB_DELAY}s tomcat-max-threads=$TOMCAT_MAX_THREADS"
+for path in /vehicle/search /vehicle/search/reactive; do
+  # Warm-up: JIT and connection pools
+  python3 bench/concurrency_load.py "http://localhost:$APP_PORT/api" "$TOKEN" 20 "$path" > /dev/null
+  printf '%-26s ' "$path"
+  python3 bench/concurrency_load.py "http://localhost:$APP_PORT/api" "$TOKEN" "$CONCURRENCY" "$path"
+done
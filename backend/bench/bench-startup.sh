@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Cold-start time: launch to first answered HTTP request, regular jar vs the fast-start layout.
+#
+# "jar" is java -jar on the Spring Boot fat jar; "fast-start" runs target/fast-start (mvn -Pfast-start
+# package) with its AppCDS archive and Spring AOT bean definitions. Each mode is started RUNS times; a run
+# ends when GET /api/actuator/health answers with any status (MongoDB is not needed), and the app is killed.
+#
+# Usage (from backend/, JDK 21 on PATH): ./bench/bench-startup.sh
+#   RUNS=5 APP_PORT=8091 ./bench/bench-startup.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS="${RUNS:-3}"
+APP_PORT="${APP_PORT:-8091}"
+JAR="$(ls target/ci-api-view-backend-*.jar 2>/dev/null | head -1 || true)"
+
+if [[ -z "$JAR" || ! -f target/fast-start/app.jsa ]]; then
+  mvn -B -q -Pfast-start package -DskipTests
+  JAR="$(ls target/ci-api-view-backend-*.jar | head -1)"
+fi
+
+APP_PID=""
+cleanup() {
+  [[ -n "$APP_PID" ]] && kill "$APP_PID" 2>/dev/null || true
+}
+trap cleanup EXIT
+
+now_ms() { date +%s%3N; }
+
+# Prints the ms from launch to the first HTTP answer; the app's own "Started ... in" line goes to the log
+run_once() {
+  local label="$1"; shift
+  local start; start="$(now_ms)"
+  "$@" --server.port="$APP_PORT" --logging.level.com.cars24=WARN \
+    --logging.level.com.cars24.rcview.RcViewApplication=INFO > "target/bench-startup-$label.log" 2>&1 &
+  APP_PID=$!
+  until [[ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$APP_PORT/api/actuator/health" || true)" != "000" ]]; do
+    if ! kill -0 "$APP_PID" 2>/dev/null; then
+      echo "startup failed, see target/bench-startup-$label.log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  echo $(( $(now_ms) - start ))
+  kill "$APP_PID"; wait "$APP_PID" 2>/dev/null || true
+  APP_PID=""
+}
+
+measure() {
+  local label="$1"; shift
+  local times=()
+  for _ in $(seq 1 "$RUNS"); do
+    times+=("$(run_once "$label" "$@")")
+  done
+  local median; median="$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")"
+  local started; started="$(grep -o 'Started RcViewApplication in [0-9.]* seconds' "target/bench-startup-$label.log" | grep -o '[0-9.]*' || echo '?')"
+  printf '%-11s first request after %5s ms (median of %s: %s); Spring reports started in %ss\n' \
+    "$label" "$median" "$RUNS" "${times[*]}" "$started"
+}
+
+export DEV_MODE="${DEV_MODE:-true}" VAHAN_API_KEY=bench
+
+measure jar java -jar "$JAR"
+measure fast-start bash -c 'cd target/fast-start && exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+  -cp "app.jar:lib/*" com.cars24.rcview.RcViewApplication "$@"' fast-start
@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Concurrent-request capacity with platform vs virtual threads, against a slow Vahan stub.
+#
+# Starts the stub and then the backend twice (dev mode, no MongoDB needed for search): once with a
+# bounded Tomcat platform-thread pool and once with spring.threads.virtual.enabled=true, and fires
+# CONCURRENCY simultaneous cache-miss searches at each.
+#
+# Usage (from backend/, JDK 21 on PATH): ./bench/bench-virtual-threads.sh
+#   CONCURRENCY=400 STUB_DELAY=1.0 TOMCAT_MAX_THREADS=50 ./bench/bench-virtual-threads.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+CONCURRENCY="${CONCURRENCY:-400}"
+STUB_DELAY="${STUB_DELAY:-1.0}"
+TOMCAT_MAX_THREADS="${TOMCAT_MAX_THREADS:-50}"
+STUB_PORT="${STUB_PORT:-9099}"
+APP_PORT="${APP_PORT:-8091}"
+JAR="$(ls target/ci-api-view-backend-*.jar 2>/dev/null | head -1 || true)"
+
+if [[ -z "$JAR" ]]; then
+  mvn -B -q package -DskipTests
+  JAR="$(ls target/ci-api-view-backend-*.jar | head -1)"
+fi
+
+python3 bench/slow_vahan_stub.py "$STUB_PORT" "$STUB_DELAY" &
+STUB_PID=$!
+APP_PID=""
+cleanup() {
+  [[ -n "$APP_PID" ]] && kill "$APP_PID" 2>/dev/null || true
+  kill "$STUB_PID" 2>/dev/null || true
+}
+trap cleanup EXIT
+
+run_mode() {
+  local label="$1"; shift
+  DEV_MODE=true VAHAN_API_KEY=bench java -jar "$JAR" \
+    --server.port="$APP_PORT" \
+    --vahan.api.base-url="http://127.0.0.1:$STUB_PORT/search" \
+    --app.rate-limit.per-second=1000000 \
+    --app.rate-limit.search-cooldown-ms=0 \
+    --server.tomcat.threads.max="$TOMCAT_MAX_THREADS" \
+    --logging.level.com.cars24=WARN \
+    "$@" > "target/bench-$label.log" 2>&1 &
+  APP_PID=$!
+  local token=""
+  for _ in $(seq 1 120); do
+    token="$(curl -sf "http://localhost:$APP_PORT/api/dev/login" 2>/dev/null | python3 -c 'import json,sys; print(json.load(sys.stdin)["token"])' 2>/dev/null || true)"
+    [[ -n "$token" ]] && break
+    sleep 0.5
+  done
+  if [[ -z "$token" ]]; then
+    echo "backend did not start, see target/bench-$label.log" >&2
+    exit 1
+  fi
+  # Warm-up: first search loads config and JIT-compiles the hot path
+  python3 bench/concurrency_load.py "http://localhost:$APP_PORT/api" "$token" 20 > /dev/null
+  printf '%-9s ' "$label"
+  python3 bench/concurrency_load.py "http://localhost:$APP_PORT/api" "$token" "$CONCURRENCY"
+  kill "$APP_PID"; wait "$APP_PID" 2>/dev/null || true
+  APP_PID=""
+}
+
+echo "concurrency=$CONCURRENCY stub-delay=${STUB_DELAY}s tomcat-max-threads=$TOMCAT_MAX_THREADS"
+run_mode platform --spring.threads.virtual.enabled=false
+run_mode virtual --spring.threads.virtual.enabled=true
@@ -0,0 +1,51 @@
+#!/usr/bin/env python3
+"""Fires N concurrent cache-miss searches at the backend and reports throughput and latency.
+
+Every request uses a distinct registration number, so each one waits on the (slow) Vahan stub.
+
+Usage: concurrency_load.py BASE_URL TOKEN CONCURRENCY [PATH]
+"""
+import concurrent.futures
+import json
+import sys
+import time
+import urllib.request
+import uuid
+
+BASE_URL, TOKEN, CONCURRENCY = sys.argv[1], sys.argv[2], int(sys.argv[3])
+PATH = sys.argv[4] if len(sys.argv) > 4 else "/vehicle/search"
+RUN_ID = uuid.uuid4().hex[:4].upper()
+
+
+def one(i):
+    body = json.dumps({"registrationNumber": f"BM{RUN_ID}{i:06d}"}).encode()
+    req = urllib.request.Request(BASE_URL + PATH, data=body, method="POST", headers={
+        "Content-Type": "application/json",
+        "Authorization": "Bearer " + TOKEN,
+    })
+    start = time.monotonic()
+    try:
+        with urllib.request.urlopen(req, timeout=120) as res:
+            ok = res.status == 200
+    except Exception:
+        ok = False
+    return ok, time.monotonic() - start
+
+
+def main():
+    start = time.monotonic()
+    with concurrent.futures.ThreadPoolExecutor(max_workers=CONCURRENCY) as pool:
+        results = list(pool.map(one, range(CONCURRENCY)))
+    wall = time.monotonic() - start
+    latencies = sorted(t for _, t in results)
+    ok = sum(1 for success, _ in results if success)
+
+    def pct(p):
+        return latencies[min(len(latencies) - 1, int(p * len(latencies)))]
+
+    print(f"requests={CONCURRENCY} ok={ok} wall={wall:.2f}s throughput={ok / wall:.1f} req/s "
+          f"p50={pct(0.50):.2f}s p95={pct(0.95):.2f}s max={latencies[-1]:.2f}s")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,80 @@
+#!/usr/bin/env python3
+"""Slow Vahan stub for local benchmarks.
+
+Answers every GET with a small RC_PRO-like payload after a fixed delay, so request capacity is
+dominated by how many lookups the backend can keep in flight. Also serves a minimal OIDC discovery
+document, for runs that point the Google issuer-uri at the stub.
+
+Usage: slow_vahan_stub.py PORT DELAY_SECONDS [TAIL_FRACTION TAIL_DELAY_SECONDS]
+  With TAIL_FRACTION, that share of requests takes TAIL_DELAY_SECONDS instead (long-tail latency).
+  STUB_FAIL_FRACTION / STUB_FAIL_STATUS env vars: answer that share of lookups with the given HTTP
+  status (default 503) instead, to exercise retries.
+"""
+import os
+import http.server
+import json
+import random
+import sys
+import time
+import urllib.parse
+
+PORT = int(sys.argv[1]) if len(sys.argv) > 1 else 9099
+DELAY = float(sys.argv[2]) if len(sys.argv) > 2 else 1.0
+TAIL_FRACTION = float(sys.argv[3]) if len(sys.argv) > 3 else 0.0
+TAIL_DELAY = float(sys.argv[4]) if len(sys.argv) > 4 else DELAY
+FAIL_FRACTION = float(os.environ.get("STUB_FAIL_FRACTION", "0"))
+FAIL_STATUS = int(os.environ.get("STUB_FAIL_STATUS", "503"))
+ISSUER = f"http://127.0.0.1:{PORT}/google"
+
+
+class Handler(http.server.BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def do_GET(self):
+        if "openid-configuration" in self.path:
+            self._send({
+                "issuer": ISSUER,
+                "authorization_endpoint": ISSUER + "/auth",
+                "token_endpoint": ISSUER + "/token",
+                "jwks_uri": ISSUER + "/jwks",
+                "userinfo_endpoint": ISSUER + "/userinfo",
+                "subject_types_supported": ["public"],
+                "response_types_supported": ["code"],
+                "id_token_signing_alg_values_supported": ["RS256"],
+            })
+            return
+        query = urllib.parse.parse_qs(urllib.parse.urlparse(self.path).query)
+        vehicle = query.get("vehicle_num", ["XX00XX0000"])[0]
+        time.sleep(TAIL_DELAY if random.random() < TAIL_FRACTION else DELAY)
+        if random.random() < FAIL_FRACTION:
+            self._send({"error": "stub failure"}, FAIL_STATUS)
+            return
+        self._send({"data": {
+            "regNo": vehicle,
+            "ownerName": "Stub Owner",
+            "makerModel": "STUB MODEL",
+            "fuelType": "PETROL",
+            "chassisNo": "MA3STUB" + vehicle[-6:],
+            "engineNo": "EN" + vehicle[-6:],
+            "insuranceUpto": "2030-01-01",
+        }})
+
+    def _send(self, payload, status=200):
+        body = json.dumps(payload).encode()
+        self.send_response(status)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(body)))
+        self.end_headers()
+        self.wfile.write(body)
+
+    def log_message(self, *args):
+        pass
+
+
+class Server(http.server.ThreadingHTTPServer):
+    daemon_threads = True
+    request_queue_size = 1024
+
+
+if __name__ == "__main__":
+    Server(("127.0.0.1", PORT), Handler).serve_forever()
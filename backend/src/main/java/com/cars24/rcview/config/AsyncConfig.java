@@ -0,0 +1,81 @@
+package com.cars24.rcview.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors for the search path: outbound Vahan calls made by the async search endpoint, so slow
+ * lookups wait there instead of holding Tomcat worker threads, and the parallel daily-quota check.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} Spring Boot already runs Tomcat request handling on
+ * virtual threads; this config extends that to the app's own I/O pools. Pool sizes then act only as
+ * concurrency caps, not as thread counts.
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String VAHAN_EXECUTOR = "vahanExecutor";
+    public static final String PRECHECK_EXECUTOR = "precheckExecutor";
+
+    @Value("${app.async.vahan-pool-size:16}")
+    private int vahanPoolSize;
+
+    @Value("${app.async.vahan-queue-capacity:200}")
+    private int vahanQueueCapacity;
+
+    @Value("${app.async.precheck-pool-size:32}")
+    private int precheckPoolSize;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean(name = VAHAN_EXECUTOR)
+    public Executor vahanExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("vahan-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(vahanPoolSize);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(vahanPoolSize);
+        executor.setMaxPoolSize(vahanPoolSize);
+        executor.setQueueCapacity(vahanQueueCapacity);
+        executor.setThreadNamePrefix("vahan-");
+        return executor;
+    }
+
+    /**
+     * Runs the daily-quota count of a search while the request thread does the cache lookup.
+     * When saturated the caller runs the count itself, so a search degrades to sequential, never fails.
+     */
+    @Bean(name = PRECHECK_EXECUTOR)
+    public Executor precheckExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("precheck-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(precheckPoolSize);
+        executor.setMaxPoolSize(precheckPoolSize);
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("precheck-");
+        return executor;
+    }
+
+    /** Thread factory for the app's own I/O pools: virtual threads when virtual-thread mode is on. */
+    public static ThreadFactory ioThreadFactory(String namePrefix, boolean virtualThreads) {
+        return virtualThreads
+                ? Thread.ofVirtual().name(namePrefix, 0).factory()
+                : Thread.ofPlatform().name(namePrefix, 0).factory();
+    }
+}
@@ -2,6 +2,7 @@ package com.cars24.rcview.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -14,6 +15,16 @@ public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    /** MongoDB unreachable on a path without an in-memory fallback (e.g. admin pages): retryable, not a server bug. */
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<Map<String, String>> handleDatabaseUnavailable(DataAccessResourceFailureException e) {
+        log.warn("Database unavailable: {}", e.getMessage());
+        String message = "Database temporarily unavailable. Please try again shortly.";
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", message, "errorMessage", message));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleException(Exception e) {
         log.error("Unhandled exception", e);
@@ -1,24 +1,134 @@
 package com.cars24.rcview.config;
 
 import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientFactory;
 import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
- * Prevents startup from hanging when MongoDB is unreachable (e.g. Atlas slow/wrong URI).
- * Without this, the driver can block for 30+ seconds waiting for a server.
+ * MongoDB clients, one connection pool per workload, all on spring.data.mongodb.uri:
+ * <ul>
+ *   <li>primary (the default client and {@link MongoTemplate}, used by the repositories): users, config,
+ *       quota counts and cache writes;</li>
+ *   <li>{@link #CACHE_TEMPLATE}: vehicle_cache reads, from a secondary within the configured staleness
+ *       when there is one;</li>
+ *   <li>{@link #AUDIT_TEMPLATE}: audit_logs writes with a relaxed write concern.</li>
+ * </ul>
+ * Each pool's metrics (mongodb.driver.pool.*) are tagged with its profile. All clients fail fast when
+ * MongoDB is unreachable (e.g. Atlas slow/wrong URI); without that the driver can block for 30+ seconds
+ * waiting for a server.
  */
 @Configuration
 public class MongoConfig {
 
+    public static final String CACHE_TEMPLATE = "cacheMongoTemplate";
+    public static final String AUDIT_TEMPLATE = "auditMongoTemplate";
+
     private static final int SERVER_SELECTION_TIMEOUT_SECONDS = 3;
+    private static final int CONNECT_TIMEOUT_SECONDS = 3;
 
     @Bean
     public MongoClientSettingsBuilderCustomizer mongoTimeoutCustomizer() {
-        return builder -> builder.applyToClusterSettings(b ->
-                b.serverSelectionTimeout(SERVER_SELECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return builder -> builder
+                .applyToClusterSettings(b -> b.serverSelectionTimeout(SERVER_SELECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                // Fail fast on a dead connection too, so MongoHealthGuard can switch to degraded mode
+                .applyToSocketSettings(b -> b.connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Bean
+    @Primary
+    public MongoClient mongoClient(ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.mongo.primary.max-pool-size:100}") int maxPoolSize,
+                                   @Value("${app.mongo.primary.max-wait-ms:120000}") long maxWaitMs) {
+        return createClient("primary", customizers, meterRegistry, maxPoolSize, maxWaitMs, builder -> { });
+    }
+
+    @Bean
+    public MongoClient cacheMongoClient(ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.mongo.cache.read-preference:secondaryPreferred}") String readPreference,
+                                        @Value("${app.mongo.cache.max-staleness-seconds:90}") long maxStalenessSeconds,
+                                        @Value("${app.mongo.cache.max-pool-size:50}") int maxPoolSize,
+                                        @Value("${app.mongo.cache.max-wait-ms:120000}") long maxWaitMs) {
+        ReadPreference preference = readPreference.equalsIgnoreCase("primary") || maxStalenessSeconds < 0
+                ? ReadPreference.valueOf(readPreference)
+                : ReadPreference.valueOf(readPreference, List.of(), maxStalenessSeconds, TimeUnit.SECONDS);
+        return createClient("cache", customizers, meterRegistry, maxPoolSize, maxWaitMs,
+                builder -> builder.readPreference(preference));
+    }
+
+    @Bean
+    public MongoClient auditMongoClient(ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.mongo.audit.write-concern:W1}") String writeConcern,
+                                        @Value("${app.mongo.audit.journal:false}") boolean journal,
+                                        @Value("${app.mongo.audit.max-pool-size:20}") int maxPoolSize,
+                                        @Value("${app.mongo.audit.max-wait-ms:120000}") long maxWaitMs) {
+        WriteConcern concern = WriteConcern.valueOf(writeConcern);
+        if (concern == null) {
+            throw new IllegalStateException("Unknown app.mongo.audit.write-concern: " + writeConcern);
+        }
+        return createClient("audit", customizers, meterRegistry, maxPoolSize, maxWaitMs,
+                builder -> builder.readPreference(ReadPreference.primary()).writeConcern(concern.withJournal(journal)));
+    }
+
+    /** Declared here because the workload templates below would otherwise replace Boot's default one. */
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter) {
+        return new MongoTemplate(factory, converter);
+    }
+
+    @Bean(CACHE_TEMPLATE)
+    public MongoTemplate cacheMongoTemplate(@Qualifier("cacheMongoClient") MongoClient client,
+                                            MongoDatabaseFactory factory, MongoConverter converter) {
+        return new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, factory.getMongoDatabase().getName()), converter);
+    }
+
+    @Bean(AUDIT_TEMPLATE)
+    public MongoTemplate auditMongoTemplate(@Qualifier("auditMongoClient") MongoClient client,
+                                            MongoDatabaseFactory factory, MongoConverter converter) {
+        return new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, factory.getMongoDatabase().getName()), converter);
+    }
+
+    /**
+     * A client built like Boot's own (URI, timeouts, command metrics), with its own pool size and a pool
+     * metrics listener tagged with the profile instead of Boot's untagged one.
+     */
+    private static MongoClient createClient(String profile, ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                            MeterRegistry meterRegistry, int maxPoolSize, long maxWaitMs,
+                                            Consumer<MongoClientSettings.Builder> workload) {
+        List<MongoClientSettingsBuilderCustomizer> all = new ArrayList<>(customizers.orderedStream().toList());
+        all.add(builder -> {
+            builder.applyToConnectionPoolSettings(pool -> pool
+                    .maxSize(maxPoolSize)
+                    .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS)
+                    .connectionPoolListenerList(List.of(new MongoMetricsConnectionPoolListener(meterRegistry,
+                            event -> Tags.of("profile", profile,
+                                    "server.address", event.getServerId().getAddress().toString())))));
+            workload.accept(builder);
+        });
+        return new MongoClientFactory(all).createMongoClient(MongoClientSettings.builder().build());
     }
 }
@@ -2,6 +2,7 @@ package com.cars24.rcview.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
@@ -18,6 +19,13 @@ public class RestTemplateConfig {
 
     private static final Logger log = LoggerFactory.getLogger(RestTemplateConfig.class);
 
+    /** Bounds each Vahan attempt; without these a hung connection would outlast the retry deadline. */
+    @Value("${vahan.api.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${vahan.api.read-timeout-ms:15000}")
+    private int readTimeoutMs;
+
     @Bean
     public RestTemplate restTemplate() {
         try {
@@ -41,12 +49,17 @@ public class RestTemplateConfig {
                     super.prepareConnection(connection, httpMethod);
                 }
             };
+            factory.setConnectTimeout(connectTimeoutMs);
+            factory.setReadTimeout(readTimeoutMs);
 
             log.info("RestTemplate configured with trust-all SSL context for external API calls.");
             return new RestTemplate(factory);
         } catch (Exception e) {
             log.warn("Failed to create SSL-trusting RestTemplate, falling back to default: {}", e.getMessage());
-            return new RestTemplate();
+            SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+            factory.setConnectTimeout(connectTimeoutMs);
+            factory.setReadTimeout(readTimeoutMs);
+            return new RestTemplate(factory);
         }
     }
 }
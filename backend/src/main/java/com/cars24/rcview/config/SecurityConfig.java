@@ -1,11 +1,14 @@
 package com.cars24.rcview.config;
 
 import com.cars24.rcview.security.CustomOAuth2UserService;
+import com.cars24.rcview.security.IpRateLimitFilter;
 import com.cars24.rcview.security.JwtAuthFilter;
 import com.cars24.rcview.security.OAuth2SuccessHandler;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -25,11 +28,15 @@ public class SecurityConfig {
 
     private final CustomOAuth2UserService customOAuth2UserService;
     private final JwtAuthFilter jwtAuthFilter;
+    private final IpRateLimitFilter ipRateLimitFilter;
     private final OAuth2SuccessHandler oAuth2SuccessHandler;
 
-    public SecurityConfig(CustomOAuth2UserService customOAuth2UserService, JwtAuthFilter jwtAuthFilter, OAuth2SuccessHandler oAuth2SuccessHandler) {
+    /** The OAuth beans are lazy proxies: they (and the user lookup behind them) are only built on the first SSO login. */
+    public SecurityConfig(@Lazy CustomOAuth2UserService customOAuth2UserService, JwtAuthFilter jwtAuthFilter,
+                          IpRateLimitFilter ipRateLimitFilter, @Lazy OAuth2SuccessHandler oAuth2SuccessHandler) {
         this.customOAuth2UserService = customOAuth2UserService;
         this.jwtAuthFilter = jwtAuthFilter;
+        this.ipRateLimitFilter = ipRateLimitFilter;
         this.oAuth2SuccessHandler = oAuth2SuccessHandler;
     }
 
@@ -39,8 +46,13 @@ public class SecurityConfig {
                 .cors(c -> c.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
                 .addFilterBefore(jwtAuthFilter, org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class)
+                // Cheap per-IP check first, so floods are dropped before any JWT or MongoDB work
+                .addFilterBefore(ipRateLimitFilter, JwtAuthFilter.class)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/actuator/health", "/error").permitAll()
+                        // Async re-dispatches (streamed/deferred responses) were authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/error").permitAll()
+                        .requestMatchers("/actuator/**").hasAnyRole("ADMIN", "SUPER_ADMIN")
                         .requestMatchers("/dev/**").permitAll()
                         .requestMatchers("/oauth2/**", "/login/oauth2/**").permitAll()
                         .requestMatchers("/admin/**").hasAnyRole("ADMIN", "SUPER_ADMIN")
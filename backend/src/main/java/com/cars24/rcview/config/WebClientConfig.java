@@ -0,0 +1,56 @@
+package com.cars24.rcview.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.net.ssl.SSLException;
+import java.time.Duration;
+
+/**
+ * Non-blocking HTTP client for Vahan, used by the reactive search pipeline. Trusts all certificates
+ * like {@link RestTemplateConfig}. The connection pool is the backpressure point: at most
+ * {@code max-connections} calls are in flight, further ones wait in a bounded queue and are
+ * rejected once it is full.
+ */
+@Configuration
+@Profile("reactive")
+public class WebClientConfig {
+
+    @Value("${app.reactive.vahan-max-connections:200}")
+    private int maxConnections;
+
+    @Value("${app.reactive.vahan-pending-acquire-max:1000}")
+    private int pendingAcquireMax;
+
+    @Value("${app.reactive.vahan-timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Bean
+    public WebClient vahanWebClient() throws SSLException {
+        SslContext sslContext = SslContextBuilder.forClient()
+                .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                .build();
+        ConnectionProvider pool = ConnectionProvider.builder("vahan")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .secure(spec -> spec.sslContext(sslContext))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10_000)
+                .responseTimeout(Duration.ofMillis(timeoutMs));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
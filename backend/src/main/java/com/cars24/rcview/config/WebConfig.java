@@ -0,0 +1,22 @@
+package com.cars24.rcview.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * HTTP caching for small endpoints the frontend polls. Their ETag is a hash of the response body, so
+ * the server still builds the response but sends a bodyless 304 when nothing changed.
+ * {@code GET /vehicle/{regNo}} sets its own ETag from the cache entry instead.
+ */
+@Configuration
+public class WebConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> pollingEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/vehicle/rate-limit", "/auth/me");
+        return registration;
+    }
+}
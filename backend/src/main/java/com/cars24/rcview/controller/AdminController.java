@@ -3,25 +3,36 @@ package com.cars24.rcview.controller;
 import com.cars24.rcview.entity.AppConfig;
 import com.cars24.rcview.entity.AppUser;
 import com.cars24.rcview.service.AdminService;
+import com.cars24.rcview.service.CacheWarmingService;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+@Lazy
 @RestController
 @RequestMapping("/admin")
 public class AdminController {
 
     private final AdminService adminService;
+    private final CacheWarmingService cacheWarmingService;
 
-    public AdminController(AdminService adminService) {
+    public AdminController(AdminService adminService, CacheWarmingService cacheWarmingService) {
         this.adminService = adminService;
+        this.cacheWarmingService = cacheWarmingService;
     }
 
     @GetMapping("/users")
@@ -131,18 +142,135 @@ public class AdminController {
         }
     }
 
+    /**
+     * Audit logs, newest first. With {@code from} and/or {@code to} (ISO instant or date, UTC; to is
+     * exclusive) only that range is returned, including entries already moved to the archive.
+     */
     @GetMapping("/audit-logs")
     public ResponseEntity<?> getAuditLogs(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+        Instant fromInstant;
+        Instant toInstant;
+        try {
+            fromInstant = parseInstant(from);
+            toInstant = parseInstant(to);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from/to must be an ISO date (2026-01-31) or instant"));
+        }
         try {
             Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-            return ResponseEntity.ok(adminService.getAuditLogs(pageable));
+            if (fromInstant == null && toInstant == null) {
+                return ResponseEntity.ok(adminService.getAuditLogs(pageable));
+            }
+            return ResponseEntity.ok(adminService.getAuditLogs(fromInstant, toInstant, pageable));
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Could not read the audit archive: " + e.getMessage()));
+        } catch (Exception e) {
+            return mongoUnavailable();
+        }
+    }
+
+    /** Moves audit logs older than app.audit.archive.max-age-days to the archive now, instead of waiting for the next run. */
+    @PostMapping("/audit-logs/archive")
+    public ResponseEntity<?> archiveAuditLogs() {
+        try {
+            return ResponseEntity.ok(Map.of("archived", adminService.archiveAuditLogs()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Could not write the audit archive: " + e.getMessage()));
         } catch (Exception e) {
             return mongoUnavailable();
         }
     }
 
+    /**
+     * How the RC data of a registration number changed across refreshes: a baseline with the first payload,
+     * then one entry per refresh that changed something, with {@code from}/{@code to} per changed field.
+     */
+    @GetMapping("/vehicles/{registrationNumber}/history")
+    public ResponseEntity<?> getVehicleHistory(@PathVariable String registrationNumber) {
+        if (registrationNumber == null || registrationNumber.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "registrationNumber is required"));
+        }
+        try {
+            return ResponseEntity.ok(adminService.getVehicleHistory(registrationNumber));
+        } catch (Exception e) {
+            return mongoUnavailable();
+        }
+    }
+
+    /** Re-indexes the chassis and engine numbers of every cached vehicle (for entries cached before the index existed). */
+    @PostMapping("/identifier-index/rebuild")
+    public ResponseEntity<?> rebuildIdentifierIndex() {
+        try {
+            return ResponseEntity.ok(Map.of("indexed", adminService.rebuildIdentifierIndex()));
+        } catch (Exception e) {
+            return mongoUnavailable();
+        }
+    }
+
+    /**
+     * Starts a cache-warming job. Body: {@code { "registrationNumbers": ["MH12AB1234", ...] }}.
+     * Only uncached or near-expiry numbers are fetched from Vahan.
+     */
+    @PostMapping("/cache-warm")
+    public ResponseEntity<?> startCacheWarming(@RequestBody Map<String, List<String>> body) {
+        List<String> regNos = body != null ? body.get("registrationNumbers") : null;
+        if (regNos == null || regNos.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "registrationNumbers is required"));
+        }
+        try {
+            return ResponseEntity.accepted().body(cacheWarmingService.start(regNos, adminService.getCurrentUserEmail()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** Starts a cache-warming job from an uploaded file: one registration number per line, or CSV with it in the first column. */
+    @PostMapping("/cache-warm/upload")
+    public ResponseEntity<?> startCacheWarmingFromFile(@RequestParam("file") MultipartFile file) {
+        try {
+            List<String> regNos = CacheWarmingService.parseRegistrationList(file.getInputStream());
+            return ResponseEntity.accepted().body(cacheWarmingService.start(regNos, adminService.getCurrentUserEmail()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Could not read uploaded file"));
+        }
+    }
+
+    @GetMapping("/cache-warm")
+    public ResponseEntity<?> listCacheWarmingJobs() {
+        return ResponseEntity.ok(cacheWarmingService.listJobs());
+    }
+
+    @GetMapping("/cache-warm/{jobId}")
+    public ResponseEntity<?> getCacheWarmingJob(@PathVariable String jobId) {
+        return cacheWarmingService.getJob(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/cache-warm/{jobId}")
+    public ResponseEntity<?> cancelCacheWarmingJob(@PathVariable String jobId) {
+        if (!cacheWarmingService.cancel(jobId)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Job not found or not running"));
+        }
+        return ResponseEntity.ok(cacheWarmingService.getJob(jobId).orElseThrow());
+    }
+
+    private static Instant parseInstant(String value) {
+        if (value == null || value.isBlank()) return null;
+        if (value.length() == 10) {
+            return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return Instant.parse(value);
+    }
+
     private ResponseEntity<?> mongoUnavailable() {
         return ResponseEntity.status(503).body(Map.of(
                 "error", "MongoDB not available — start MongoDB or set MONGODB_URI.",
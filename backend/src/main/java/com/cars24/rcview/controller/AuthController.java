@@ -23,6 +23,6 @@ public class AuthController {
         if (user == null) {
             return ResponseEntity.status(401).build();
         }
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok().cacheControl(VehicleController.REVALIDATE).body(user);
     }
 }
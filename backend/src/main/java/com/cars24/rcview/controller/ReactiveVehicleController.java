@@ -0,0 +1,56 @@
+package com.cars24.rcview.controller;
+
+import com.cars24.rcview.dto.UserInfoDto;
+import com.cars24.rcview.dto.VehicleSearchResponse;
+import com.cars24.rcview.service.ReactiveVehicleSearchService;
+import com.cars24.rcview.service.UserService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Reactive search endpoint, only registered with the "reactive" profile. Same request and response
+ * as {@code POST /vehicle/search}; the returned {@link Mono} completes the request asynchronously,
+ * so no servlet thread waits on MongoDB or Vahan.
+ */
+@RestController
+@RequestMapping("/vehicle")
+@Profile("reactive")
+public class ReactiveVehicleController {
+
+    private final ReactiveVehicleSearchService reactiveSearchService;
+    private final UserService userService;
+
+    public ReactiveVehicleController(ReactiveVehicleSearchService reactiveSearchService, UserService userService) {
+        this.reactiveSearchService = reactiveSearchService;
+        this.userService = userService;
+    }
+
+    @PostMapping("/search/reactive")
+    public Mono<ResponseEntity<VehicleSearchResponse>> search(@RequestBody Map<String, String> body) {
+        String regNo = body != null ? body.get("registrationNumber") : null;
+        if (regNo == null || regNo.isBlank()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(VehicleSearchResponse.builder()
+                            .success(false)
+                            .errorMessage("registrationNumber is required")
+                            .build()));
+        }
+        // Resolve the user here, on the request thread that holds the security context
+        UserInfoDto user = userService.getCurrentUser();
+        if (user == null) {
+            return Mono.just(VehicleController.toResponse(VehicleSearchResponse.builder()
+                    .success(false)
+                    .errorMessage("Unauthorized")
+                    .build()));
+        }
+        return reactiveSearchService.search(regNo, user.getId(), user.getEmail(), user.getRole())
+                .map(VehicleController::toResponse);
+    }
+}
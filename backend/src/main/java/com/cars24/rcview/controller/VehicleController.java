@@ -2,14 +2,33 @@ package com.cars24.rcview.controller;
 
 import com.cars24.rcview.dto.VehicleSearchResponse;
 import com.cars24.rcview.entity.AppConfig;
+import com.cars24.rcview.entity.VehicleIdentifier;
+import com.cars24.rcview.service.BulkLookupService;
 import com.cars24.rcview.service.ConfigService;
+import com.cars24.rcview.service.Freshness;
 import com.cars24.rcview.service.RateLimitService;
+import com.cars24.rcview.service.RecentSearchService;
+import com.cars24.rcview.service.ResponseFields;
 import com.cars24.rcview.service.UserService;
+import com.cars24.rcview.service.VehicleDataProvider;
+import com.cars24.rcview.service.VehicleIdentifierIndex;
 import com.cars24.rcview.service.VehicleSearchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/vehicle")
@@ -19,15 +38,32 @@ public class VehicleController {
     private final UserService userService;
     private final RateLimitService rateLimitService;
     private final ConfigService configService;
+    private final BulkLookupService bulkLookupService;
+    private final RecentSearchService recentSearchService;
+
+    /** Per-user responses the browser may keep, but must revalidate (If-None-Match) before every reuse. */
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    @Value("${app.async.search-timeout-ms:30000}")
+    private long asyncSearchTimeoutMs;
 
     public VehicleController(VehicleSearchService vehicleSearchService, UserService userService,
-                             RateLimitService rateLimitService, ConfigService configService) {
+                             RateLimitService rateLimitService, ConfigService configService,
+                             BulkLookupService bulkLookupService, RecentSearchService recentSearchService) {
         this.vehicleSearchService = vehicleSearchService;
         this.userService = userService;
         this.rateLimitService = rateLimitService;
         this.configService = configService;
+        this.bulkLookupService = bulkLookupService;
+        this.recentSearchService = recentSearchService;
     }
 
+    /**
+     * Optional body keys {@code fields} (comma-separated data keys) and {@code profile} (summary,
+     * insurance, puc or full) limit {@code data} to those keys. {@code maxAgeDays} skips older cache
+     * entries and is passed to Vahan as maxAge (0: live data); {@code cacheOnly} ("true") never calls
+     * Vahan and answers 404 on a miss.
+     */
     @PostMapping("/search")
     public ResponseEntity<VehicleSearchResponse> search(@RequestBody Map<String, String> body) {
         String regNo = body != null ? body.get("registrationNumber") : null;
@@ -38,15 +74,259 @@ public class VehicleController {
                             .errorMessage("registrationNumber is required")
                             .build());
         }
-        VehicleSearchResponse result = vehicleSearchService.search(regNo);
+        ResponseFields fields;
+        Freshness freshness;
+        try {
+            fields = vehicleSearchService.resolveFields(body.get("fields"), body.get("profile"));
+            freshness = Freshness.parse(body.get("maxAgeDays"), body.get("cacheOnly"));
+        } catch (IllegalArgumentException e) {
+            return invalidOption(e);
+        }
+        return toResponse(vehicleSearchService.search(regNo, fields, freshness));
+    }
+
+    /**
+     * Cacheable form of {@link #search}, with the same checks, audit entry and options (as query
+     * parameters). The ETag identifies the cache entry the data came from and the field selection, so a
+     * client that sends it back in If-None-Match gets a 304 with no body until the entry is refreshed
+     * from Vahan. Such a revalidation is answered before the search: it uses no quota, does not start
+     * the cooldown and is not audited, as no data is disclosed.
+     */
+    @GetMapping("/{regNo}")
+    public ResponseEntity<VehicleSearchResponse> lookup(@PathVariable String regNo,
+                                                        @RequestParam(required = false) String fields,
+                                                        @RequestParam(required = false) String profile,
+                                                        @RequestParam(required = false) String maxAgeDays,
+                                                        @RequestParam(required = false) String cacheOnly,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                        String ifNoneMatch) {
+        ResponseFields selection;
+        Freshness freshness;
+        try {
+            selection = vehicleSearchService.resolveFields(fields, profile);
+            freshness = Freshness.parse(maxAgeDays, cacheOnly);
+        } catch (IllegalArgumentException e) {
+            return invalidOption(e);
+        }
+        if (ifNoneMatch != null) {
+            Instant cachedAt = vehicleSearchService.cachedAt(regNo, freshness).orElse(null);
+            if (cachedAt != null && eTagMatches(ifNoneMatch, eTag(cachedAt, selection))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag(cachedAt, selection))
+                        .cacheControl(REVALIDATE)
+                        .build();
+            }
+        }
+        VehicleSearchResponse result = vehicleSearchService.search(regNo, selection, freshness);
+        if (!result.isSuccess() || result.getCachedAt() == null) {
+            return toResponse(result);
+        }
+        // Spring still answers 304 itself if the entry changed between the check above and the search
+        return ResponseEntity.ok()
+                .eTag(eTag(result.getCachedAt(), selection))
+                .cacheControl(REVALIDATE)
+                .body(result);
+    }
+
+    /** Identifies the cache entry (by when it was cached) and the field selection, unquoted. */
+    private static String eTag(Instant cachedAt, ResponseFields selection) {
+        String eTag = Long.toHexString(cachedAt.toEpochMilli());
+        if (!selection.isAll()) {
+            eTag += "-" + Integer.toHexString(selection.key().hashCode());
+        }
+        return eTag;
+    }
+
+    /** True if If-None-Match is "*" or lists the ETag; weak comparison, as for any GET. */
+    private static boolean eTagMatches(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals("\"" + eTag + "\"")) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Same as {@link #search} but releases the servlet thread while Vahan is called. Cache hits and
+     * rejected requests complete without leaving the request thread.
+     */
+    @PostMapping("/search/async")
+    public DeferredResult<ResponseEntity<VehicleSearchResponse>> searchAsync(@RequestBody Map<String, String> body) {
+        DeferredResult<ResponseEntity<VehicleSearchResponse>> deferred = new DeferredResult<>(asyncSearchTimeoutMs,
+                () -> ResponseEntity.status(504).body(VehicleSearchResponse.builder()
+                        .success(false)
+                        .errorMessage("Vahan lookup timed out. Try again.")
+                        .build()));
+        String regNo = body != null ? body.get("registrationNumber") : null;
+        if (regNo == null || regNo.isBlank()) {
+            deferred.setResult(ResponseEntity.badRequest()
+                    .body(VehicleSearchResponse.builder()
+                            .success(false)
+                            .errorMessage("registrationNumber is required")
+                            .build()));
+            return deferred;
+        }
+        ResponseFields fields;
+        Freshness freshness;
+        try {
+            fields = vehicleSearchService.resolveFields(body.get("fields"), body.get("profile"));
+            freshness = Freshness.parse(body.get("maxAgeDays"), body.get("cacheOnly"));
+        } catch (IllegalArgumentException e) {
+            deferred.setResult(invalidOption(e));
+            return deferred;
+        }
+        vehicleSearchService.searchAsync(regNo, fields, freshness).whenComplete((result, error) -> {
+            if (error != null) {
+                deferred.setErrorResult(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                deferred.setResult(toResponse(result));
+            }
+        });
+        return deferred;
+    }
+
+    /**
+     * The current user's recent successful searches, newest first, on any device: {@code id}, masked
+     * {@code registrationNumber} and {@code searchedAt}. Replay one with {@link #searchRecent}.
+     */
+    @GetMapping("/recent")
+    public ResponseEntity<Map<String, Object>> recentSearches() {
+        var user = userService.getCurrentUser();
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(Map.of(
+                "searches", recentSearchService.list(user.getId())));
+    }
+
+    /**
+     * Searches again for a recent search by its id, served from the cache whenever it still holds the
+     * vehicle. Optional query parameters {@code fields} and {@code profile} as for {@link #lookup}.
+     */
+    @PostMapping("/recent/{id}/search")
+    public ResponseEntity<VehicleSearchResponse> searchRecent(@PathVariable String id,
+                                                              @RequestParam(required = false) String fields,
+                                                              @RequestParam(required = false) String profile) {
+        ResponseFields selection;
+        try {
+            selection = vehicleSearchService.resolveFields(fields, profile);
+        } catch (IllegalArgumentException e) {
+            return invalidOption(e);
+        }
+        return toResponse(vehicleSearchService.searchRecent(id, selection));
+    }
+
+    private static ResponseEntity<VehicleSearchResponse> invalidOption(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .body(VehicleSearchResponse.builder()
+                        .success(false)
+                        .errorMessage(e.getMessage())
+                        .build());
+    }
+
+    static ResponseEntity<VehicleSearchResponse> toResponse(VehicleSearchResponse result) {
         if (!result.isSuccess() && result.getErrorMessage() != null) {
-            int status = "Unauthorized".equals(result.getErrorMessage()) ? 401
-                    : result.getErrorMessage().contains("limit") ? 429 : 400;
-            return ResponseEntity.status(status).body(result);
+            return ResponseEntity.status(errorStatus(result.getErrorMessage())).body(result);
         }
         return ResponseEntity.ok(result);
     }
 
+    private static int errorStatus(String errorMessage) {
+        return "Unauthorized".equals(errorMessage) ? 401
+                : VehicleSearchService.CACHE_ONLY_MISS.equals(errorMessage) ? 404
+                : VehicleSearchService.RECENT_NOT_FOUND.equals(errorMessage) ? 404
+                : errorMessage.contains("limit") ? 429
+                : errorMessage.startsWith("Vahan is busy") ? 503 : 400;
+    }
+
+    /**
+     * Cached vehicles by chassis number, without calling Vahan. {@code match}: exact (default), prefix,
+     * suffix or contains; partial matches need app.identifier-index.min-partial-length characters.
+     * Optional {@code fields} and {@code profile} as for {@link #lookup}. Answers {@code {"vehicles": [...]}},
+     * empty if nothing cached matches.
+     */
+    @GetMapping("/by-chassis/{number}")
+    public ResponseEntity<Map<String, Object>> byChassis(@PathVariable String number,
+                                                         @RequestParam(defaultValue = "exact") String match,
+                                                         @RequestParam(required = false) String fields,
+                                                         @RequestParam(required = false) String profile) {
+        return byIdentifier(VehicleIdentifier.Type.CHASSIS, number, match, fields, profile);
+    }
+
+    /** Same as {@link #byChassis}, by engine number. */
+    @GetMapping("/by-engine/{number}")
+    public ResponseEntity<Map<String, Object>> byEngine(@PathVariable String number,
+                                                        @RequestParam(defaultValue = "exact") String match,
+                                                        @RequestParam(required = false) String fields,
+                                                        @RequestParam(required = false) String profile) {
+        return byIdentifier(VehicleIdentifier.Type.ENGINE, number, match, fields, profile);
+    }
+
+    private ResponseEntity<Map<String, Object>> byIdentifier(VehicleIdentifier.Type type, String number, String match,
+                                                             String fields, String profile) {
+        VehicleIdentifierIndex.Match matchMode;
+        try {
+            matchMode = VehicleIdentifierIndex.Match.valueOf(match.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "match must be exact, prefix, suffix or contains"));
+        }
+        VehicleSearchService.IdentifierMatches result;
+        try {
+            result = vehicleSearchService.searchByIdentifier(type, number, matchMode,
+                    vehicleSearchService.resolveFields(fields, profile));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (result.errorMessage() != null) {
+            return ResponseEntity.status(errorStatus(result.errorMessage())).body(Map.of("error", result.errorMessage()));
+        }
+        return ResponseEntity.ok(Map.of("vehicles", result.vehicles()));
+    }
+
+    /**
+     * Bulk lookup from an uploaded CSV (registration number in the first column). Results are streamed
+     * back row by row as NDJSON (default) or CSV while the rest of the file is still being resolved.
+     */
+    @PostMapping(value = "/bulk-search", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> bulkSearch(@RequestParam("file") MultipartFile file,
+                                        @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        var user = userService.getCurrentUser();
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        BulkLookupService.Format outputFormat;
+        try {
+            outputFormat = BulkLookupService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return streamedError(400, "format must be ndjson or csv");
+        }
+        String admissionError = bulkLookupService.checkAdmission(user.getId());
+        if (admissionError != null) {
+            return streamedError(429, admissionError);
+        }
+        StreamingResponseBody body = out -> {
+            try (InputStream in = file.getInputStream()) {
+                bulkLookupService.lookup(in, out, outputFormat, user.getId(), user.getEmail(),
+                        VehicleDataProvider.Priority.of(user.getRole()));
+            }
+        };
+        MediaType contentType = outputFormat == BulkLookupService.Format.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
+
+    /** Error body for streaming endpoints, same shape as the other endpoints' {@code {"error": ...}}. */
+    private static ResponseEntity<StreamingResponseBody> streamedError(int status, String message) {
+        String json = "{\"error\":\"" + message.replace("\"", "'") + "\"}";
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
     /**
      * Unmask a registration number. This is an audited action – the user must
      * have acknowledged the sensitive-data warning on the frontend before calling.
@@ -79,7 +359,7 @@ public class VehicleController {
         AppConfig config = configService.getConfig();
         // updatedBy is only set when an admin explicitly saves the config
         boolean adminConfigured = config.getUpdatedBy() != null;
-        return ResponseEntity.ok(Map.of(
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(Map.of(
                 "remainingSearchesToday", remaining,
                 "dailyLimit", config.getRateLimitPerDayDefault(),
                 "adminConfigured", adminConfigured
@@ -1,5 +1,6 @@
 package com.cars24.rcview.dto;
 
+import java.time.Instant;
 import java.util.Map;
 
 public class VehicleSearchResponse {
@@ -9,17 +10,20 @@ public class VehicleSearchResponse {
     private String registrationNumber;
     private Map<String, Object> data;
     private String errorMessage;
+    /** When the vehicle data was fetched from Vahan; identifies the cache entry the data came from. */
+    private Instant cachedAt;
 
     public VehicleSearchResponse() {
     }
 
     public VehicleSearchResponse(boolean success, boolean fromCache, String registrationNumber,
-                                 Map<String, Object> data, String errorMessage) {
+                                 Map<String, Object> data, String errorMessage, Instant cachedAt) {
         this.success = success;
         this.fromCache = fromCache;
         this.registrationNumber = registrationNumber;
         this.data = data;
         this.errorMessage = errorMessage;
+        this.cachedAt = cachedAt;
     }
 
     public static Builder builder() {
@@ -36,6 +40,8 @@ public class VehicleSearchResponse {
     public void setData(Map<String, Object> data) { this.data = data; }
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public Instant getCachedAt() { return cachedAt; }
+    public void setCachedAt(Instant cachedAt) { this.cachedAt = cachedAt; }
 
     public static final class Builder {
         private boolean success;
@@ -43,14 +49,16 @@ public class VehicleSearchResponse {
         private String registrationNumber;
         private Map<String, Object> data;
         private String errorMessage;
+        private Instant cachedAt;
 
         public Builder success(boolean success) { this.success = success; return this; }
         public Builder fromCache(boolean fromCache) { this.fromCache = fromCache; return this; }
         public Builder registrationNumber(String registrationNumber) { this.registrationNumber = registrationNumber; return this; }
         public Builder data(Map<String, Object> data) { this.data = data; return this; }
         public Builder errorMessage(String errorMessage) { this.errorMessage = errorMessage; return this; }
+        public Builder cachedAt(Instant cachedAt) { this.cachedAt = cachedAt; return this; }
         public VehicleSearchResponse build() {
-            return new VehicleSearchResponse(success, fromCache, registrationNumber, data, errorMessage);
+            return new VehicleSearchResponse(success, fromCache, registrationNumber, data, errorMessage, cachedAt);
         }
     }
 }
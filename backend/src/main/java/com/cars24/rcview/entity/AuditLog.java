@@ -26,13 +26,19 @@ public class AuditLog {
 
     private Map<String, Object> metadata;
 
+    /**
+     * Number of events this entry stands for; null means one. Set on aggregated entries
+     * (app.audit.aggregate), whose createdAt is the latest of those events.
+     */
+    private Integer count;
+
     @Indexed
     private Instant createdAt;
 
     public AuditLog() {
     }
 
-    public AuditLog(String id, String userId, String userEmail, AuditAction action, String registrationNumber, boolean fromCache, String details, Map<String, Object> metadata, Instant createdAt) {
+    public AuditLog(String id, String userId, String userEmail, AuditAction action, String registrationNumber, boolean fromCache, String details, Map<String, Object> metadata, Integer count, Instant createdAt) {
         this.id = id;
         this.userId = userId;
         this.userEmail = userEmail;
@@ -41,6 +47,7 @@ public class AuditLog {
         this.fromCache = fromCache;
         this.details = details;
         this.metadata = metadata;
+        this.count = count;
         this.createdAt = createdAt;
     }
 
@@ -64,6 +71,8 @@ public class AuditLog {
     public void setDetails(String details) { this.details = details; }
     public Map<String, Object> getMetadata() { return metadata; }
     public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
+    public Integer getCount() { return count; }
+    public void setCount(Integer count) { this.count = count; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
 
@@ -71,12 +80,15 @@ public class AuditLog {
         SEARCH,
         API_CALL,
         CACHE_HIT,
+        /** A cacheOnly search without a cache entry: nothing disclosed, so not counted towards the daily quota. */
+        CACHE_MISS,
         UNMASK_REG_NUMBER,
         USER_LOGIN,
         USER_ADDED,
         USER_REMOVED,
         USER_ROLE_CHANGED,
-        CONFIG_UPDATED
+        CONFIG_UPDATED,
+        CACHE_WARM
     }
 
     public static final class Builder {
@@ -88,6 +100,7 @@ public class AuditLog {
         private boolean fromCache;
         private String details;
         private Map<String, Object> metadata;
+        private Integer count;
         private Instant createdAt;
 
         public Builder id(String id) { this.id = id; return this; }
@@ -98,7 +111,8 @@ public class AuditLog {
         public Builder fromCache(boolean fromCache) { this.fromCache = fromCache; return this; }
         public Builder details(String details) { this.details = details; return this; }
         public Builder metadata(Map<String, Object> metadata) { this.metadata = metadata; return this; }
+        public Builder count(Integer count) { this.count = count; return this; }
         public Builder createdAt(Instant createdAt) { this.createdAt = createdAt; return this; }
-        public AuditLog build() { return new AuditLog(id, userId, userEmail, action, registrationNumber, fromCache, details, metadata, createdAt); }
+        public AuditLog build() { return new AuditLog(id, userId, userEmail, action, registrationNumber, fromCache, details, metadata, count, createdAt); }
     }
 }
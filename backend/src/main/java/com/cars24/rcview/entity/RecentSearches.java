@@ -0,0 +1,59 @@
+package com.cars24.rcview.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/** A user's most recent successful searches, newest first; the document id is the user id. */
+@Document(collection = "recent_searches")
+public class RecentSearches {
+
+    @Id
+    private String userId;
+
+    private List<Item> items;
+
+    private Instant updatedAt;
+
+    public RecentSearches() {
+    }
+
+    public RecentSearches(String userId, List<Item> items, Instant updatedAt) {
+        this.userId = userId;
+        this.items = items;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    public static class Item {
+
+        /** Opaque handle for replaying the search; the registration number itself is never sent back unmasked. */
+        private String id;
+        private String regNoNormalized;
+        private Instant searchedAt;
+
+        public Item() {
+        }
+
+        public Item(String id, String regNoNormalized, Instant searchedAt) {
+            this.id = id;
+            this.regNoNormalized = regNoNormalized;
+            this.searchedAt = searchedAt;
+        }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getRegNoNormalized() { return regNoNormalized; }
+        public void setRegNoNormalized(String regNoNormalized) { this.regNoNormalized = regNoNormalized; }
+        public Instant getSearchedAt() { return searchedAt; }
+        public void setSearchedAt(Instant searchedAt) { this.searchedAt = searchedAt; }
+    }
+}
@@ -0,0 +1,80 @@
+package com.cars24.rcview.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One version of a vehicle's RC data. The first version of a registration number is a baseline holding
+ * the whole payload; each later one holds only the top-level keys whose value changed or was added
+ * ({@code changed}) and the keys that disappeared ({@code removed}) compared to the version before.
+ */
+@Document(collection = "vehicle_history")
+public class VehicleHistory {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String regNoNormalized;
+
+    /** When the data of this version was fetched (the cache entry's cachedAt). */
+    private Instant fetchedAt;
+
+    private boolean baseline;
+
+    private Map<String, Object> changed;
+
+    private List<String> removed;
+
+    public VehicleHistory() {
+    }
+
+    public VehicleHistory(String id, String regNoNormalized, Instant fetchedAt, boolean baseline,
+                          Map<String, Object> changed, List<String> removed) {
+        this.id = id;
+        this.regNoNormalized = regNoNormalized;
+        this.fetchedAt = fetchedAt;
+        this.baseline = baseline;
+        this.changed = changed;
+        this.removed = removed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getRegNoNormalized() { return regNoNormalized; }
+    public void setRegNoNormalized(String regNoNormalized) { this.regNoNormalized = regNoNormalized; }
+    public Instant getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(Instant fetchedAt) { this.fetchedAt = fetchedAt; }
+    public boolean isBaseline() { return baseline; }
+    public void setBaseline(boolean baseline) { this.baseline = baseline; }
+    public Map<String, Object> getChanged() { return changed; }
+    public void setChanged(Map<String, Object> changed) { this.changed = changed; }
+    public List<String> getRemoved() { return removed; }
+    public void setRemoved(List<String> removed) { this.removed = removed; }
+
+    public static final class Builder {
+        private String id;
+        private String regNoNormalized;
+        private Instant fetchedAt;
+        private boolean baseline;
+        private Map<String, Object> changed;
+        private List<String> removed;
+
+        public Builder id(String id) { this.id = id; return this; }
+        public Builder regNoNormalized(String regNoNormalized) { this.regNoNormalized = regNoNormalized; return this; }
+        public Builder fetchedAt(Instant fetchedAt) { this.fetchedAt = fetchedAt; return this; }
+        public Builder baseline(boolean baseline) { this.baseline = baseline; return this; }
+        public Builder changed(Map<String, Object> changed) { this.changed = changed; return this; }
+        public Builder removed(List<String> removed) { this.removed = removed; return this; }
+        public VehicleHistory build() { return new VehicleHistory(id, regNoNormalized, fetchedAt, baseline, changed, removed); }
+    }
+}
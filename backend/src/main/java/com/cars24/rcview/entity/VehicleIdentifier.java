@@ -0,0 +1,80 @@
+package com.cars24.rcview.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Secondary index entry: the chassis or engine number found in a vehicle's cached RC data, pointing back
+ * to its registration number. {@code value} is normalized (upper case, no spaces or separators);
+ * {@code reversed} is the same string backwards, so suffix searches are anchored prefix scans too.
+ * The id is {@code TYPE:regNo}, one entry per type and vehicle.
+ */
+@Document(collection = "vehicle_identifiers")
+@CompoundIndex(name = "type_value", def = "{'type': 1, 'value': 1}")
+@CompoundIndex(name = "type_reversed", def = "{'type': 1, 'reversed': 1}")
+public class VehicleIdentifier {
+
+    public enum Type { CHASSIS, ENGINE }
+
+    @Id
+    private String id;
+
+    private Type type;
+
+    private String value;
+
+    private String reversed;
+
+    private String regNoNormalized;
+
+    private Instant updatedAt;
+
+    public VehicleIdentifier() {
+    }
+
+    public VehicleIdentifier(String id, Type type, String value, String reversed, String regNoNormalized, Instant updatedAt) {
+        this.id = id;
+        this.type = type;
+        this.value = value;
+        this.reversed = reversed;
+        this.regNoNormalized = regNoNormalized;
+        this.updatedAt = updatedAt;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+    public String getReversed() { return reversed; }
+    public void setReversed(String reversed) { this.reversed = reversed; }
+    public String getRegNoNormalized() { return regNoNormalized; }
+    public void setRegNoNormalized(String regNoNormalized) { this.regNoNormalized = regNoNormalized; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    public static final class Builder {
+        private String id;
+        private Type type;
+        private String value;
+        private String reversed;
+        private String regNoNormalized;
+        private Instant updatedAt;
+
+        public Builder id(String id) { this.id = id; return this; }
+        public Builder type(Type type) { this.type = type; return this; }
+        public Builder value(String value) { this.value = value; return this; }
+        public Builder reversed(String reversed) { this.reversed = reversed; return this; }
+        public Builder regNoNormalized(String regNoNormalized) { this.regNoNormalized = regNoNormalized; return this; }
+        public Builder updatedAt(Instant updatedAt) { this.updatedAt = updatedAt; return this; }
+        public VehicleIdentifier build() { return new VehicleIdentifier(id, type, value, reversed, regNoNormalized, updatedAt); }
+    }
+}
@@ -1,12 +1,27 @@
 package com.cars24.rcview.repository;
 
 import com.cars24.rcview.entity.AuditLog;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
 
 public interface AuditLogRepository extends MongoRepository<AuditLog, String> {
 
-    long countByUserIdAndActionInAndCreatedAtAfter(String userId, Collection<AuditLog.AuditAction> actions, Instant since);
+    /** Events (not documents) of the given actions since {@code since}: an aggregated entry counts as its count. Null if none. */
+    @Aggregation(pipeline = {
+            "{ '$match': { 'userId': ?0, 'action': { '$in': ?1 }, 'createdAt': { '$gt': ?2 } } }",
+            "{ '$group': { '_id': null, 'total': { '$sum': { '$ifNull': ['$count', 1] } } } }"
+    })
+    Long sumEventsByUserIdAndActionInAndCreatedAtAfter(String userId, Collection<AuditLog.AuditAction> actions, Instant since);
+
+    Page<AuditLog> findByCreatedAtBetween(Range<Instant> range, Pageable pageable);
+
+    /** Oldest entries first, for archiving; the Pageable carries the batch size and createdAt sort. */
+    List<AuditLog> findByCreatedAtLessThan(Instant cutoff, Pageable pageable);
 }
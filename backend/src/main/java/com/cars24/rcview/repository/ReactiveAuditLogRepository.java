@@ -0,0 +1,20 @@
+package com.cars24.rcview.repository;
+
+import com.cars24.rcview.entity.AuditLog;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/** Non-blocking counterpart of {@link AuditLogRepository}; only active with the "reactive" profile. */
+public interface ReactiveAuditLogRepository extends ReactiveMongoRepository<AuditLog, String> {
+
+    /** Same as {@link AuditLogRepository#sumEventsByUserIdAndActionInAndCreatedAtAfter}; empty if none. */
+    @Aggregation(pipeline = {
+            "{ '$match': { 'userId': ?0, 'action': { '$in': ?1 }, 'createdAt': { '$gt': ?2 } } }",
+            "{ '$group': { '_id': null, 'total': { '$sum': { '$ifNull': ['$count', 1] } } } }"
+    })
+    Mono<Long> sumEventsByUserIdAndActionInAndCreatedAtAfter(String userId, Collection<AuditLog.AuditAction> actions, Instant since);
+}
@@ -0,0 +1,7 @@
+package com.cars24.rcview.repository;
+
+import com.cars24.rcview.entity.RecentSearches;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RecentSearchesRepository extends MongoRepository<RecentSearches, String> {
+}
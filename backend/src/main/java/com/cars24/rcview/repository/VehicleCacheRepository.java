@@ -3,10 +3,10 @@ package com.cars24.rcview.repository;
 import com.cars24.rcview.entity.VehicleCache;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-import java.time.Instant;
 import java.util.Optional;
 
+/** Write path of the vehicle cache (primary); reads go through {@code MongoConfig.CACHE_TEMPLATE}. */
 public interface VehicleCacheRepository extends MongoRepository<VehicleCache, String> {
 
-    Optional<VehicleCache> findByRegNoNormalizedAndExpiresAtAfter(String regNoNormalized, Instant now);
+    Optional<VehicleCache> findFirstByRegNoNormalizedOrderByCachedAtDesc(String regNoNormalized);
 }
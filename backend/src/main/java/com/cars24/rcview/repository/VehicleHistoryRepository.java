@@ -0,0 +1,13 @@
+package com.cars24.rcview.repository;
+
+import com.cars24.rcview.entity.VehicleHistory;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface VehicleHistoryRepository extends MongoRepository<VehicleHistory, String> {
+
+    boolean existsByRegNoNormalized(String regNoNormalized);
+
+    List<VehicleHistory> findByRegNoNormalizedOrderByFetchedAtAsc(String regNoNormalized);
+}
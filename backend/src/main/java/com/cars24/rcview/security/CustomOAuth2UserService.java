@@ -3,8 +3,9 @@ package com.cars24.rcview.security;
 import com.cars24.rcview.entity.AppUser;
 import com.cars24.rcview.entity.AuditLog;
 import com.cars24.rcview.repository.AppUserRepository;
-import com.cars24.rcview.repository.AuditLogRepository;
+import com.cars24.rcview.service.AuditService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
@@ -14,23 +15,21 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 import java.util.Optional;
 
+@Lazy
 @Service
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
     private final AppUserRepository userRepository;
-    private final AuditLogRepository auditLogRepository;
+    private final AuditService auditService;
 
-    public CustomOAuth2UserService(AppUserRepository userRepository, AuditLogRepository auditLogRepository) {
+    public CustomOAuth2UserService(AppUserRepository userRepository, AuditService auditService) {
         this.userRepository = userRepository;
-        this.auditLogRepository = auditLogRepository;
+        this.auditService = auditService;
     }
 
     @Value("${app.super-admin-email:vikas.kumar8@cars24.com}")
     private String superAdminEmail;
 
-    @Value("${app.dev-mode:false}")
-    private boolean devMode;
-
     @Override
     public OAuth2User loadUser(OAuth2UserRequest request) throws OAuth2AuthenticationException {
         OAuth2User oauth2User = super.loadUser(request);
@@ -68,14 +67,12 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
             user = userRepository.save(user);
         }
 
-        if (!devMode) {
-            auditLogRepository.save(AuditLog.builder()
-                    .userId(user.getId())
-                    .userEmail(user.getEmail())
-                    .action(AuditLog.AuditAction.USER_LOGIN)
-                    .createdAt(Instant.now())
-                    .build());
-        }
+        auditService.record(AuditLog.builder()
+                .userId(user.getId())
+                .userEmail(user.getEmail())
+                .action(AuditLog.AuditAction.USER_LOGIN)
+                .createdAt(Instant.now())
+                .build());
 
         return new CustomOAuth2User(oauth2User, user);
     }
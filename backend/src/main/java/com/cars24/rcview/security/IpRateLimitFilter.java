@@ -0,0 +1,111 @@
+package com.cars24.rcview.security;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-client-IP token bucket, placed before {@link JwtAuthFilter}: requests over the limit get a 429
+ * before any token is parsed or MongoDB is touched. Health probes are exempt. IPv6 clients share one
+ * bucket per /64, the block a single host or subscriber usually gets. At most max-tracked-ips buckets are
+ * kept; beyond that the least recently used one is dropped, so churning addresses cannot reset the
+ * buckets of clients that are still active.
+ */
+@Component
+public class IpRateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY = "{\"error\":\"Too many requests from this address. Please slow down.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, Bucket> buckets;
+    private final Counter rejected;
+
+    @Value("${app.rate-limit.ip.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.ip.per-second:20}")
+    private int perSecond;
+
+    @Value("${app.rate-limit.ip.burst:40}")
+    private int burst;
+
+    public IpRateLimitFilter(MeterRegistry meterRegistry,
+                             @Value("${app.rate-limit.ip.max-tracked-ips:100000}") int maxTrackedIps) {
+        this.rejected = meterRegistry.counter("http.ip.rejected");
+        this.buckets = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > maxTrackedIps;
+            }
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith(request.getContextPath() + "/actuator/health");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Bucket bucket = buckets.computeIfAbsent(clientKey(request.getRemoteAddr()), k -> newBucket());
+        if (!bucket.tryConsume(1)) {
+            rejected.increment();
+            response.setStatus(429);
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(REJECTED_BODY);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /** The address itself for IPv4, its /64 prefix for IPv6. */
+    static String clientKey(String address) {
+        if (address == null || address.indexOf(':') < 0) {
+            return address;
+        }
+        try {
+            // A literal address is parsed without any lookup
+            byte[] bytes = InetAddress.getByName(address).getAddress();
+            if (bytes.length != 16) {
+                return address;
+            }
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < 8; i += 2) {
+                key.append(Integer.toHexString(((bytes[i] & 0xff) << 8) | (bytes[i + 1] & 0xff))).append(':');
+            }
+            return key.append(":/64").toString();
+        } catch (UnknownHostException e) {
+            return address;
+        }
+    }
+
+    private Bucket newBucket() {
+        int capacity = Math.max(burst, perSecond);
+        return Bucket.builder()
+                .addLimit(Bandwidth.classic(capacity, Refill.greedy(perSecond, Duration.ofSeconds(1))))
+                .build();
+    }
+}
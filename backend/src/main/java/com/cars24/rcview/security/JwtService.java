@@ -2,6 +2,7 @@ package com.cars24.rcview.security;
 
 import com.cars24.rcview.entity.AppUser;
 import com.cars24.rcview.repository.AppUserRepository;
+import com.cars24.rcview.service.MongoHealthGuard;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
@@ -19,6 +21,7 @@ public class JwtService {
     private static final long USER_CACHE_TTL_MS = 60_000; // 1 min – avoid MongoDB on every request
 
     private final AppUserRepository userRepository;
+    private final MongoHealthGuard mongoHealthGuard;
 
     private final ConcurrentHashMap<String, CachedUser> userCache = new ConcurrentHashMap<>();
 
@@ -36,8 +39,9 @@ public class JwtService {
         }
     }
 
-    public JwtService(AppUserRepository userRepository) {
+    public JwtService(AppUserRepository userRepository, MongoHealthGuard mongoHealthGuard) {
         this.userRepository = userRepository;
+        this.mongoHealthGuard = mongoHealthGuard;
     }
 
     @Value("${app.jwt.secret:rcview-default-secret-key-min-256-bits-for-hs256-please-change-in-production-xyz}")
@@ -71,33 +75,44 @@ public class JwtService {
             String userId = claims.getSubject();
             // In dev mode, skip MongoDB lookup and use token claims directly
             if (devMode && claims.get("email") != null) {
-                String roleStr = claims.get("role", String.class);
-                AppUser.Role role = roleStr != null ? AppUser.Role.valueOf(roleStr) : AppUser.Role.USER;
-                return AppUser.builder()
-                        .id(userId)
-                        .email(String.valueOf(claims.get("email")))
-                        .name("Dev User")
-                        .role(role)
-                        .ssoEnabled(true)
-                        .build();
+                return userFromClaims(claims, "Dev User", roleClaim(claims));
             }
             // Production: short-lived cache to avoid MongoDB on every request
             CachedUser cached = userCache.get(token);
-            if (cached != null) {
-                if (cached.isExpired()) {
-                    userCache.remove(token);
-                } else {
-                    return cached.user;
-                }
+            if (cached != null && !cached.isExpired()) {
+                return cached.user;
             }
-            var dbUser = userRepository.findById(userId).orElse(null);
+            // MongoDB unavailable: keep the last known user, else trust the (signed) token for identity only.
+            // Its role may have been revoked since it was issued, so an unknown user gets the lowest role.
+            var dbUser = mongoHealthGuard.call(() -> userRepository.findById(userId),
+                    () -> Optional.of(cached != null ? cached.user : userFromClaims(claims, null, AppUser.Role.USER)))
+                    .orElse(null);
             if (dbUser != null) {
-                userCache.put(token, new CachedUser(dbUser, USER_CACHE_TTL_MS));
+                if (mongoHealthGuard.isAvailable()) {
+                    userCache.put(token, new CachedUser(dbUser, USER_CACHE_TTL_MS));
+                }
                 return dbUser;
             }
+            userCache.remove(token);
             return null;
         } catch (Exception e) {
             return null;
         }
     }
+
+    private static AppUser.Role roleClaim(Claims claims) {
+        String roleStr = claims.get("role", String.class);
+        return roleStr != null ? AppUser.Role.valueOf(roleStr) : AppUser.Role.USER;
+    }
+
+    private static AppUser userFromClaims(Claims claims, String name, AppUser.Role role) {
+        String email = String.valueOf(claims.get("email"));
+        return AppUser.builder()
+                .id(claims.getSubject())
+                .email(email)
+                .name(name != null ? name : email)
+                .role(role)
+                .ssoEnabled(true)
+                .build();
+    }
 }
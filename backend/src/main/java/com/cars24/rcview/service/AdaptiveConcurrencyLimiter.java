@@ -0,0 +1,118 @@
+package com.cars24.rcview.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limit for outbound calls. Every fast, successful call raises the limit by 1/limit
+ * (about +1 per round of calls); a slow or failed call cuts it by the backoff ratio, at most once per
+ * latency-threshold interval so one overload episode is not punished call by call.
+ * Calls over the limit wait in a short bounded queue and are rejected when it is full or the wait expires.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final long latencyThresholdMs;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long lastDecreaseNanos;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMs,
+                               double backoffRatio, int maxQueue, long maxWaitMs) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.latencyThresholdMs = latencyThresholdMs;
+        this.backoffRatio = backoffRatio;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        this.lastDecreaseNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+    }
+
+    /** Takes an in-flight slot, waiting briefly if none is free. Returns false if the call must be rejected. */
+    boolean tryAcquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= maxQueue) {
+                return false;
+            }
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Frees the slot and adjusts the limit from the call's latency and outcome. */
+    void release(long latencyMs, boolean failed) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (failed || latencyMs > latencyThresholdMs) {
+                long now = System.nanoTime();
+                if (now - lastDecreaseNanos >= TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs)) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -7,26 +7,38 @@ import com.cars24.rcview.repository.AppUserRepository;
 import com.cars24.rcview.repository.AuditLogRepository;
 import com.cars24.rcview.security.CustomOAuth2User;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
+@Lazy
 @Service
 public class AdminService {
 
     private final AppUserRepository userRepository;
     private final AuditLogRepository auditLogRepository;
     private final ConfigService configService;
+    private final AuditArchiveService auditArchiveService;
+    private final VehicleHistoryService vehicleHistoryService;
+    private final VehicleIdentifierIndex vehicleIdentifierIndex;
 
-    public AdminService(AppUserRepository userRepository, AuditLogRepository auditLogRepository, ConfigService configService) {
+    public AdminService(AppUserRepository userRepository, AuditLogRepository auditLogRepository, ConfigService configService,
+                        AuditArchiveService auditArchiveService, VehicleHistoryService vehicleHistoryService,
+                        VehicleIdentifierIndex vehicleIdentifierIndex) {
         this.userRepository = userRepository;
         this.auditLogRepository = auditLogRepository;
         this.configService = configService;
+        this.auditArchiveService = auditArchiveService;
+        this.vehicleHistoryService = vehicleHistoryService;
+        this.vehicleIdentifierIndex = vehicleIdentifierIndex;
     }
 
     @Value("${app.super-admin-email:vikas.kumar8@cars24.com}")
@@ -108,7 +120,25 @@ public class AdminService {
         return auditLogRepository.findAll(pageable);
     }
 
-    private String getCurrentUserEmail() {
+    /** Audit logs in [from, to), newest first, including archived entries when the range reaches them. */
+    public Page<AuditLog> getAuditLogs(Instant from, Instant to, Pageable pageable) throws IOException {
+        return auditArchiveService.search(from, to, pageable);
+    }
+
+    public int archiveAuditLogs() throws IOException {
+        return auditArchiveService.archiveNow();
+    }
+
+    /** Timeline of the RC data stored for the registration number, oldest version first. */
+    public List<Map<String, Object>> getVehicleHistory(String registrationNumber) {
+        return vehicleHistoryService.timeline(VehicleSearchService.normalizeRegNo(registrationNumber));
+    }
+
+    public int rebuildIdentifierIndex() {
+        return vehicleIdentifierIndex.rebuild();
+    }
+
+    public String getCurrentUserEmail() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.getPrincipal() instanceof CustomOAuth2User user) {
             return user.getAppUser().getEmail();
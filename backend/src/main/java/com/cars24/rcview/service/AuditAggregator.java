@@ -0,0 +1,89 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.AuditLog;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory counters for high-volume audit actions. Events with the same action, user, registration
+ * number and details within one window share a bucket; {@link AuditService} periodically drains the
+ * buckets into audit_logs as {@code $inc} upserts on {@link Key#documentId()}, so every flush of a
+ * window adds to the same document.
+ */
+final class AuditAggregator {
+
+    record Key(AuditLog.AuditAction action, String userId, String userEmail, String registrationNumber,
+               String details, long windowStart) {
+
+        /** Derived from the key, so retries and later flushes of the window hit the same document. */
+        String documentId() {
+            return "agg:" + action + ":" + userId + ":" + windowStart + ":"
+                    + (registrationNumber != null ? registrationNumber : "") + (details != null ? ":" + details : "");
+        }
+    }
+
+    /** Events of one key since the last drain; only touched inside the map's atomic compute. */
+    static final class Bucket {
+        int count;
+        Instant last;
+    }
+
+    private final Map<Key, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long windowMs;
+    private final int maxKeys;
+
+    AuditAggregator(long windowMs, int maxKeys) {
+        this.windowMs = windowMs;
+        this.maxKeys = maxKeys;
+    }
+
+    /** Counts one event; false (not counted) if maxKeys other keys are already waiting for a flush. */
+    boolean add(AuditLog entry) {
+        Instant at = entry.getCreatedAt() != null ? entry.getCreatedAt() : Instant.now();
+        long windowStart = at.toEpochMilli() - Math.floorMod(at.toEpochMilli(), windowMs);
+        Key key = new Key(entry.getAction(), entry.getUserId(), entry.getUserEmail(),
+                entry.getRegistrationNumber(), entry.getDetails(), windowStart);
+        if (buckets.size() >= maxKeys && !buckets.containsKey(key)) {
+            return false;
+        }
+        buckets.compute(key, (k, bucket) -> {
+            Bucket b = bucket != null ? bucket : new Bucket();
+            b.count++;
+            if (b.last == null || at.isAfter(b.last)) {
+                b.last = at;
+            }
+            return b;
+        });
+        return true;
+    }
+
+    /** Removes and returns everything counted so far. */
+    Map<Key, Bucket> drain() {
+        Map<Key, Bucket> drained = new HashMap<>();
+        for (Key key : buckets.keySet()) {
+            Bucket bucket = buckets.remove(key);
+            if (bucket != null) {
+                drained.put(key, bucket);
+            }
+        }
+        return drained;
+    }
+
+    /** Puts drained buckets back after a failed flush, merging with events counted meanwhile. */
+    void restore(Map<Key, Bucket> drained) {
+        drained.forEach((key, old) -> buckets.merge(key, old, (current, restored) -> {
+            current.count += restored.count;
+            if (restored.last.isAfter(current.last)) {
+                current.last = restored.last;
+            }
+            return current;
+        }));
+    }
+
+    int pendingKeys() {
+        return buckets.size();
+    }
+}
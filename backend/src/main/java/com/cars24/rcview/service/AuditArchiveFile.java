@@ -0,0 +1,186 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.AuditLog;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped columnar file of archived audit entries. After a header ({@code RCA2}, row count) each field
+ * is stored as one column for all rows: low-cardinality fields (user, email, action) as a dictionary
+ * plus one index per row, createdAt as deltas from the previous row. Rows are written in createdAt
+ * order, so the columns compress far better than row-wise JSON. {@code RCA1} files (no count column)
+ * are still read.
+ */
+final class AuditArchiveFile {
+
+    private static final int MAGIC_V1 = 0x52434131; // "RCA1"
+    private static final int MAGIC = 0x52434132; // "RCA2": RCA1 plus the count column
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() { };
+
+    private AuditArchiveFile() {
+    }
+
+    /** Writes the entries (sorted by createdAt) to {@code file}, atomically via a temporary file. */
+    static void write(Path file, List<AuditLog> entries) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(entries.size());
+            writeStrings(out, entries, AuditLog::getId);
+            writeDictionary(out, entries, AuditLog::getUserId);
+            writeDictionary(out, entries, AuditLog::getUserEmail);
+            writeDictionary(out, entries, e -> e.getAction() != null ? e.getAction().name() : null);
+            writeStrings(out, entries, AuditLog::getRegistrationNumber);
+            for (AuditLog e : entries) {
+                out.writeBoolean(e.isFromCache());
+            }
+            writeStrings(out, entries, AuditLog::getDetails);
+            writeStrings(out, entries, e -> e.getMetadata() != null ? toJson(e.getMetadata()) : null);
+            long previous = 0;
+            for (AuditLog e : entries) {
+                long millis = e.getCreatedAt() != null ? e.getCreatedAt().toEpochMilli() : 0;
+                out.writeLong(millis - previous);
+                previous = millis;
+            }
+            for (AuditLog e : entries) {
+                out.writeInt(e.getCount() != null ? e.getCount() : -1);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static List<AuditLog> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), 64 * 1024)))) {
+            int magic = in.readInt();
+            if (magic != MAGIC && magic != MAGIC_V1) {
+                throw new IOException("Not an audit archive file: " + file);
+            }
+            int rows = in.readInt();
+            List<AuditLog> entries = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                entries.add(new AuditLog());
+            }
+            for (AuditLog e : entries) e.setId(readString(in));
+            List<String> users = readDictionary(in, entries.size());
+            List<String> emails = readDictionary(in, entries.size());
+            List<String> actions = readDictionary(in, entries.size());
+            for (int i = 0; i < rows; i++) {
+                AuditLog e = entries.get(i);
+                e.setUserId(users.get(i));
+                e.setUserEmail(emails.get(i));
+                e.setAction(actions.get(i) != null ? AuditLog.AuditAction.valueOf(actions.get(i)) : null);
+            }
+            for (AuditLog e : entries) e.setRegistrationNumber(readString(in));
+            for (AuditLog e : entries) e.setFromCache(in.readBoolean());
+            for (AuditLog e : entries) e.setDetails(readString(in));
+            for (AuditLog e : entries) {
+                String metadata = readString(in);
+                e.setMetadata(metadata != null ? JSON.readValue(metadata, METADATA_TYPE) : null);
+            }
+            long millis = 0;
+            for (AuditLog e : entries) {
+                millis += in.readLong();
+                e.setCreatedAt(Instant.ofEpochMilli(millis));
+            }
+            if (magic == MAGIC) {
+                for (AuditLog e : entries) {
+                    int count = in.readInt();
+                    e.setCount(count >= 0 ? count : null);
+                }
+            }
+            return entries;
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<AuditLog> entries, Function<AuditLog, String> field) throws IOException {
+        for (AuditLog e : entries) {
+            writeString(out, field.apply(e));
+        }
+    }
+
+    private static void writeDictionary(DataOutputStream out, List<AuditLog> entries, Function<AuditLog, String> field) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] indexes = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            String value = field.apply(entries.get(i));
+            if (value == null) {
+                indexes[i] = -1;
+                continue;
+            }
+            indexes[i] = codes.computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+        out.writeInt(dictionary.size());
+        for (String value : dictionary) {
+            writeString(out, value);
+        }
+        for (int index : indexes) {
+            out.writeInt(index);
+        }
+    }
+
+    private static List<String> readDictionary(DataInputStream in, int rows) throws IOException {
+        int size = in.readInt();
+        List<String> dictionary = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dictionary.add(readString(in));
+        }
+        List<String> values = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            int index = in.readInt();
+            values.add(index >= 0 ? dictionary.get(index) : null);
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String toJson(Map<String, Object> metadata) {
+        try {
+            return JSON.writeValueAsString(metadata);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.AuditLog;
+import com.cars24.rcview.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@code audit_logs} small: entries older than max-age-days are moved, oldest first, into
+ * {@link AuditArchiveFile}s partitioned by UTC day ({@code <dir>/dt=2026-01-31/part-*.rca.gz}) and then
+ * deleted from MongoDB. A run is repeated every run-interval-ms; the admin audit query reads the
+ * partitions of its time range when that range reaches back past the cutoff.
+ * <p>
+ * A crash between writing a part and deleting its rows archives them again on the next run; reads
+ * drop such duplicates by id. The archive is local to this instance, so only one instance should
+ * have archiving enabled, with dir on persistent storage.
+ */
+@Service
+public class AuditArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditArchiveService.class);
+    private static final String PARTITION_PREFIX = "dt=";
+    private static final String PART_SUFFIX = ".rca.gz";
+
+    private final AuditLogRepository auditLogRepository;
+    private final MongoHealthGuard mongoHealthGuard;
+    private final Counter archived;
+
+    @Value("${app.dev-mode:false}")
+    private boolean devMode;
+
+    @Value("${app.audit.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.audit.archive.dir:./data/audit-archive}")
+    private String dir;
+
+    @Value("${app.audit.archive.max-age-days:90}")
+    private int maxAgeDays;
+
+    @Value("${app.audit.archive.run-interval-ms:3600000}")
+    private long runIntervalMs;
+
+    @Value("${app.audit.archive.batch-size:5000}")
+    private int batchSize;
+
+    private ScheduledExecutorService archiver;
+
+    public AuditArchiveService(AuditLogRepository auditLogRepository, MongoHealthGuard mongoHealthGuard,
+                               MeterRegistry meterRegistry) {
+        this.auditLogRepository = auditLogRepository;
+        this.mongoHealthGuard = mongoHealthGuard;
+        this.archived = meterRegistry.counter("audit.archive.archived");
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled || devMode) return;
+        archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "audit-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        archiver.scheduleWithFixedDelay(this::scheduledRun, Math.min(runIntervalMs, 60_000), runIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (archiver != null) {
+            archiver.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && !devMode;
+    }
+
+    /** Archives everything older than the cutoff now. Returns the number of entries moved. */
+    public synchronized int archiveNow() throws IOException {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Audit archiving is disabled (app.audit.archive.enabled)");
+        }
+        Instant cutoff = cutoff();
+        long run = System.currentTimeMillis();
+        int total = 0;
+        int part = 0;
+        while (true) {
+            List<AuditLog> batch = auditLogRepository.findByCreatedAtLessThan(cutoff,
+                    PageRequest.of(0, batchSize, Sort.by(Sort.Direction.ASC, "createdAt")));
+            if (batch.isEmpty()) break;
+            Map<LocalDate, List<AuditLog>> byDay = new TreeMap<>();
+            for (AuditLog entry : batch) {
+                byDay.computeIfAbsent(day(entry.getCreatedAt()), d -> new ArrayList<>()).add(entry);
+            }
+            for (Map.Entry<LocalDate, List<AuditLog>> day : byDay.entrySet()) {
+                Path partition = Files.createDirectories(partitionDir(day.getKey()));
+                AuditArchiveFile.write(partition.resolve("part-" + run + "-" + part++ + PART_SUFFIX), day.getValue());
+            }
+            // Only delete what is safely on disk
+            auditLogRepository.deleteAllById(batch.stream().map(AuditLog::getId).toList());
+            total += batch.size();
+            archived.increment(batch.size());
+            if (batch.size() < batchSize) break;
+        }
+        if (total > 0) {
+            log.info("Archived {} audit entries older than {} to {}", total, cutoff, dir);
+        }
+        return total;
+    }
+
+    /**
+     * Audit entries with createdAt in [from, to), newest first. Ranges that start before the archive
+     * cutoff also read the matching day partitions (all of them, so keep such ranges narrow) and merge
+     * them with MongoDB; otherwise only MongoDB is queried. Null bounds are open.
+     */
+    public Page<AuditLog> search(Instant from, Instant to, Pageable pageable) throws IOException {
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.now().plus(1, ChronoUnit.DAYS);
+        Range<Instant> range = Range.rightOpen(start, end);
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt");
+        if (!isEnabled() || !start.isBefore(cutoff())) {
+            return auditLogRepository.findByCreatedAtBetween(range,
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), newestFirst));
+        }
+        int needed = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        Page<AuditLog> hot = auditLogRepository.findByCreatedAtBetween(range,
+                PageRequest.of(0, Math.max(1, needed), newestFirst));
+        Map<String, AuditLog> merged = new LinkedHashMap<>();
+        hot.getContent().forEach(e -> merged.put(e.getId(), e));
+        long archivedCount = 0;
+        for (AuditLog entry : readArchive(start, end)) {
+            if (merged.putIfAbsent(entry.getId(), entry) == null) {
+                archivedCount++;
+            }
+        }
+        List<AuditLog> sorted = new ArrayList<>(merged.values());
+        sorted.sort(Comparator.comparing(AuditLog::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        int fromIndex = (int) Math.min(pageable.getOffset(), sorted.size());
+        int toIndex = Math.min(fromIndex + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(fromIndex, toIndex), pageable, hot.getTotalElements() + archivedCount);
+    }
+
+    private void scheduledRun() {
+        if (!mongoHealthGuard.isAvailable()) return;
+        try {
+            archiveNow();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Audit archiving failed, retrying in {} ms: {}", runIntervalMs, e.getMessage());
+        }
+    }
+
+    /** Archived entries in [start, end), without duplicates. */
+    private List<AuditLog> readArchive(Instant start, Instant end) throws IOException {
+        Path root = Path.of(dir);
+        if (!Files.isDirectory(root)) return List.of();
+        LocalDate firstDay = day(start);
+        LocalDate lastDay = day(end.minusMillis(1));
+        Map<String, AuditLog> entries = new LinkedHashMap<>();
+        try (Stream<Path> partitions = Files.list(root)) {
+            for (Path partition : (Iterable<Path>) partitions::iterator) {
+                String name = partition.getFileName().toString();
+                if (!name.startsWith(PARTITION_PREFIX)) continue;
+                LocalDate partitionDay = LocalDate.parse(name.substring(PARTITION_PREFIX.length()));
+                if (partitionDay.isBefore(firstDay) || partitionDay.isAfter(lastDay)) continue;
+                try (Stream<Path> parts = Files.list(partition)) {
+                    for (Path part : (Iterable<Path>) parts::iterator) {
+                        if (!part.getFileName().toString().endsWith(PART_SUFFIX)) continue;
+                        for (AuditLog entry : AuditArchiveFile.read(part)) {
+                            Instant createdAt = entry.getCreatedAt();
+                            if (!createdAt.isBefore(start) && createdAt.isBefore(end)) {
+                                entries.putIfAbsent(entry.getId(), entry);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    private Instant cutoff() {
+        return Instant.now().minus(maxAgeDays, ChronoUnit.DAYS);
+    }
+
+    private Path partitionDir(LocalDate day) {
+        return Path.of(dir, PARTITION_PREFIX + day);
+    }
+
+    private static LocalDate day(Instant instant) {
+        return LocalDate.ofInstant(instant != null ? instant : Instant.EPOCH, ZoneOffset.UTC);
+    }
+}
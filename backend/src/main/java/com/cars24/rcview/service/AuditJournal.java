@@ -0,0 +1,228 @@
+package com.cars24.rcview.service;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of fixed-size, memory-mapped segment files ({@code <seq>.seg}). Each record is
+ * {@code [int length][int crc32][payload]}; a zero length marks the end of the written part of a segment.
+ * An append is a copy into the mapped page cache, so it survives a process crash or restart as soon as
+ * it returns (an OS crash too, when force is set).
+ * <p>
+ * The reader side is a single consumer: {@link #read} returns records after the checkpoint and
+ * {@link #commit} advances it, deleting segments that are fully consumed. On open, the tail of the
+ * last segment is scanned and anything after the last record with a valid CRC (a torn write) is cleared.
+ */
+class AuditJournal implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /** Position in the journal: segment sequence number and byte offset within it. */
+    record Position(long segment, int offset) { }
+
+    /** Records read after the checkpoint, and the position just after the last one. */
+    record Batch(List<byte[]> records, Position end) { }
+
+    private final Path dir;
+    private final int segmentSize;
+    private final boolean force;
+
+    /** Open segments by sequence number. Appends add at the end; only the consumer removes. */
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    /** Where the next record is written. A roll resets the offset before publishing the new segment. */
+    private volatile long writeSegment;
+    private volatile int writeOffset;
+    /** Consumer side only. */
+    private volatile Position checkpoint;
+
+    AuditJournal(Path dir, int segmentSize, boolean force) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.force = force;
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    long seq = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(seq, map(file));
+                }
+            }
+        }
+        checkpoint = readCheckpoint();
+        if (segments.isEmpty()) {
+            long first = checkpoint.segment();
+            segments.put(first, map(segmentPath(first)));
+        }
+        // Segments before the checkpoint were shipped but not yet deleted when the process stopped
+        while (segments.firstKey() < checkpoint.segment()) {
+            Files.deleteIfExists(segmentPath(segments.pollFirstEntry().getKey()));
+        }
+        if (checkpoint.segment() < segments.firstKey()) {
+            checkpoint = new Position(segments.firstKey(), 0);
+        }
+        writeOffset = recoverTail(segments.lastEntry().getValue());
+        writeSegment = segments.lastKey();
+    }
+
+    /** Appends one record. Thread-safe; returns once the record is in the mapped segment. */
+    synchronized void append(byte[] payload) {
+        int needed = HEADER_BYTES + payload.length;
+        if (needed > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + payload.length + " bytes exceeds the segment size");
+        }
+        if (writeOffset + needed > segmentSize) {
+            roll();
+        }
+        MappedByteBuffer buffer = segments.get(writeSegment);
+        int offset = writeOffset;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.put(offset + HEADER_BYTES, payload);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        // Length last: a record is only visible to a recovery scan once it is complete
+        buffer.putInt(offset, payload.length);
+        if (force) {
+            buffer.force(offset, needed);
+        }
+        writeOffset = offset + needed;
+    }
+
+    /** Appends a UTF-8 string record. */
+    void append(String payload) {
+        append(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Reads up to max records after the checkpoint without consuming them. Does not block appends. */
+    Batch read(int max) {
+        return read(checkpoint, max);
+    }
+
+    private Batch read(Position from, int max) {
+        List<byte[]> records = new ArrayList<>();
+        long segment = from.segment();
+        int offset = from.offset();
+        while (records.size() < max) {
+            // Segment before offset: everything below the offset read afterwards is fully written
+            boolean active = segment >= writeSegment;
+            int end = active ? writeOffset : segmentSize;
+            MappedByteBuffer buffer = segments.get(segment);
+            int length = offset + HEADER_BYTES <= end ? buffer.getInt(offset) : 0;
+            if (length <= 0 || offset + HEADER_BYTES + length > end) {
+                if (active) break;
+                // End of a full segment: continue with the next one
+                segment = segments.higherKey(segment);
+                offset = 0;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            records.add(payload);
+            offset += HEADER_BYTES + length;
+        }
+        return new Batch(records, new Position(segment, offset));
+    }
+
+    /** Calls the consumer for every record after the checkpoint (e.g. to rebuild counters on startup). */
+    void forEachPending(Consumer<byte[]> consumer) {
+        Position position = checkpoint;
+        Batch batch;
+        while (!(batch = read(position, 1000)).records().isEmpty()) {
+            batch.records().forEach(consumer);
+            position = batch.end();
+        }
+    }
+
+    /** Marks everything up to {@code end} as consumed and deletes segments that are entirely before it. */
+    void commit(Position end) throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(tmp, end.segment() + " " + end.offset());
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = end;
+        while (segments.firstKey() < end.segment()) {
+            // The mapping is released by GC; the file can go now
+            Files.deleteIfExists(segmentPath(segments.pollFirstEntry().getKey()));
+        }
+    }
+
+    /** Bytes appended but not yet consumed, approximately. */
+    long backlogBytes() {
+        Position from = checkpoint;
+        long segment = writeSegment;
+        int offset = writeOffset;
+        return (segment - from.segment()) * (long) segmentSize + offset - from.offset();
+    }
+
+    @Override
+    public void close() {
+        segments.values().forEach(MappedByteBuffer::force);
+    }
+
+    private void roll() {
+        long next = writeSegment + 1;
+        try {
+            segments.put(next, map(segmentPath(next)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment " + next, e);
+        }
+        writeOffset = 0;
+        writeSegment = next;
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            if (raf.length() < segmentSize) {
+                raf.setLength(segmentSize);
+            }
+            // The mapping stays valid after the channel is closed
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    /** Finds the end of the last complete record and zeroes whatever follows it. */
+    private int recoverTail(MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentSize) break;
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) break;
+            offset += HEADER_BYTES + length;
+        }
+        for (int i = offset; i < segmentSize; i++) {
+            if (buffer.get(i) != 0) buffer.put(i, (byte) 0);
+        }
+        return offset;
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return new Position(segments.isEmpty() ? 0 : segments.firstKey(), 0);
+        }
+        String[] parts = Files.readString(file).trim().split(" ");
+        return new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    private Path segmentPath(long seq) {
+        return dir.resolve(String.format("%020d%s", seq, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,403 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.config.MongoConfig;
+import com.cars24.rcview.entity.AuditLog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single write path for audit entries. While MongoDB is unavailable entries are queued in memory
+ * (oldest dropped beyond max-pending-writes) and replayed in order once it is back. Each entry gets its
+ * id before the first attempt, so a replay that is interrupted and retried cannot insert duplicates.
+ * <p>
+ * With app.audit.journal.enabled, entries are instead appended to a local memory-mapped
+ * {@link AuditJournal} before {@link #record} returns, and a shipper thread writes them to MongoDB in
+ * batches. Entries survive a restart of the app while MongoDB is down, and the request thread never
+ * waits for MongoDB.
+ * <p>
+ * Actions listed in app.audit.aggregate.actions (SEARCH, CACHE_HIT) are not stored one document per
+ * event: an {@link AuditAggregator} counts them per user, registration number and window, and every
+ * flush-interval-ms the counts are added to one document per window with {@code $inc} upserts. They skip
+ * the journal; counts not yet flushed are lost if the app crashes. Unmasks, API calls and admin actions
+ * always get one document each. Rejected requests ({@link #recordRejection}) are always aggregated.
+ */
+@Service
+public class AuditService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditService.class);
+    private static final int REPLAY_BATCH_SIZE = 500;
+    /** Actions whose individual events may be aggregated into counts. */
+    private static final Set<AuditLog.AuditAction> AGGREGATABLE = EnumSet.of(
+            AuditLog.AuditAction.SEARCH, AuditLog.AuditAction.CACHE_HIT);
+
+    /** {@link MongoConfig#AUDIT_TEMPLATE}: own connection pool, relaxed write concern. */
+    private final MongoTemplate mongoTemplate;
+    private final MongoHealthGuard mongoHealthGuard;
+    private final MeterRegistry meterRegistry;
+    private final Counter dropped;
+    private final ObjectMapper journalMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Value("${app.dev-mode:false}")
+    private boolean devMode;
+
+    @Value("${app.degraded.max-pending-writes:50000}")
+    private int maxPending;
+
+    @Value("${app.audit.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${app.audit.journal.dir:./data/audit-journal}")
+    private String journalDir;
+
+    @Value("${app.audit.journal.segment-size-bytes:16777216}")
+    private int journalSegmentSize;
+
+    @Value("${app.audit.journal.force:false}")
+    private boolean journalForce;
+
+    @Value("${app.audit.journal.ship-interval-ms:500}")
+    private long shipIntervalMs;
+
+    @Value("${app.audit.journal.batch-size:500}")
+    private int shipBatchSize;
+
+    @Value("${app.audit.aggregate.actions:}")
+    private String aggregateActions;
+
+    @Value("${app.audit.aggregate.window-ms:60000}")
+    private long aggregateWindowMs;
+
+    @Value("${app.audit.aggregate.flush-interval-ms:5000}")
+    private long aggregateFlushIntervalMs;
+
+    private final ConcurrentLinkedDeque<AuditLog> pending = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    /** Queued entries per user that count towards the daily quota, for {@link RateLimitService}. */
+    private final Map<String, AtomicInteger> pendingQuotaActions = new ConcurrentHashMap<>();
+
+    private AuditJournal journal;
+    private Timer journalAppend;
+    private Counter journalCorrupt;
+    private ScheduledExecutorService shipper;
+    private final Set<AuditLog.AuditAction> aggregated = EnumSet.noneOf(AuditLog.AuditAction.class);
+    private AuditAggregator aggregator;
+    private ScheduledExecutorService aggregateFlusher;
+
+    public AuditService(@Qualifier(MongoConfig.AUDIT_TEMPLATE) MongoTemplate mongoTemplate,
+                        MongoHealthGuard mongoHealthGuard, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoHealthGuard = mongoHealthGuard;
+        this.meterRegistry = meterRegistry;
+        this.dropped = meterRegistry.counter("mongo.degraded.dropped", "type", "audit");
+        Gauge.builder("mongo.degraded.pending", pendingCount, AtomicInteger::get).tag("type", "audit").register(meterRegistry);
+        mongoHealthGuard.onRecovery(this::replay);
+    }
+
+    @PostConstruct
+    void openJournal() throws IOException {
+        if (!journalEnabled || devMode) return;
+        journal = new AuditJournal(Path.of(journalDir), journalSegmentSize, journalForce);
+        journalCorrupt = meterRegistry.counter("audit.journal.corrupt");
+        // Entries journaled before a restart and not shipped yet still count towards today's quota
+        int[] unshipped = {0};
+        journal.forEachPending(bytes -> {
+            AuditLog entry = decode(bytes);
+            if (entry == null) return;
+            adjustQuotaCount(entry, 1);
+            unshipped[0]++;
+        });
+        if (unshipped[0] > 0) {
+            log.info("Audit journal at {} has {} entries not yet written to MongoDB", journalDir, unshipped[0]);
+        }
+        journalAppend = meterRegistry.timer("audit.journal.append");
+        Gauge.builder("audit.journal.backlog.bytes", journal, AuditJournal::backlogBytes).register(meterRegistry);
+        shipper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "audit-journal-shipper");
+            t.setDaemon(true);
+            return t;
+        });
+        shipper.scheduleWithFixedDelay(this::ship, shipIntervalMs, shipIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PostConstruct
+    void startAggregation() {
+        for (String name : aggregateActions.split(",")) {
+            if (name.isBlank()) continue;
+            AuditLog.AuditAction action = AuditLog.AuditAction.valueOf(name.trim().toUpperCase());
+            if (!AGGREGATABLE.contains(action)) {
+                throw new IllegalStateException("app.audit.aggregate.actions: " + action
+                        + " is always recorded one entry per event; only " + AGGREGATABLE + " can be aggregated");
+            }
+            aggregated.add(action);
+        }
+        if (devMode) return;
+        aggregator = new AuditAggregator(aggregateWindowMs, maxPending);
+        Gauge.builder("audit.aggregate.pending", aggregator, AuditAggregator::pendingKeys).register(meterRegistry);
+        aggregateFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "audit-aggregate-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        aggregateFlusher.scheduleWithFixedDelay(this::flushAggregates, aggregateFlushIntervalMs,
+                aggregateFlushIntervalMs, TimeUnit.MILLISECONDS);
+        if (!aggregated.isEmpty()) {
+            log.info("Audit entries for {} aggregated per {} ms window", aggregated, aggregateWindowMs);
+        }
+    }
+
+    @PreDestroy
+    void stopAggregation() {
+        if (aggregator == null) return;
+        aggregateFlusher.shutdown();
+        try {
+            aggregateFlusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAggregates();
+    }
+
+    @PreDestroy
+    void closeJournal() {
+        if (journal == null) return;
+        shipper.shutdown();
+        try {
+            shipper.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever is not shipped now is shipped on the next start
+        journal.close();
+    }
+
+    /** Saves the entry, or queues it while MongoDB is unavailable. Audit logging is off in dev mode. */
+    public void record(AuditLog entry) {
+        if (devMode) return;
+        if (aggregated.contains(entry.getAction())) {
+            aggregate(entry);
+            return;
+        }
+        store(entry);
+    }
+
+    /** One document for the entry: journaled, saved, or queued while MongoDB is unavailable. */
+    private void store(AuditLog entry) {
+        if (entry.getId() == null) {
+            entry.setId(new ObjectId().toHexString());
+        }
+        if (journal != null) {
+            byte[] record = encode(entry);
+            journalAppend.record(() -> journal.append(record));
+            adjustQuotaCount(entry, 1);
+            return;
+        }
+        mongoHealthGuard.run(() -> mongoTemplate.save(entry), () -> enqueue(entry));
+    }
+
+    /**
+     * Records a rejected request (e.g. over the per-second limit) as part of one summary entry per user,
+     * action, details and window, whose count is the number of rejections; the registration number is
+     * dropped. A client hammering a limit thus costs one MongoDB write per flush, not one per request.
+     */
+    public void recordRejection(AuditLog entry) {
+        if (devMode) return;
+        entry.setRegistrationNumber(null);
+        aggregate(entry);
+    }
+
+    /**
+     * Counts the entry in its aggregate. If the aggregator is full the entry is stored as one document
+     * instead: every aggregated action, rejections (SEARCH) included, counts towards the daily quota, so
+     * none may be dropped.
+     */
+    private void aggregate(AuditLog entry) {
+        if (aggregator.add(entry)) {
+            adjustQuotaCount(entry, 1);
+        } else {
+            store(entry);
+        }
+    }
+
+    /** Number of the user's quota-counted entries (search, cache hit, API call) not yet written to MongoDB. */
+    public int pendingQuotaActions(String userId) {
+        AtomicInteger count = userId != null ? pendingQuotaActions.get(userId) : null;
+        return count != null ? count.get() : 0;
+    }
+
+    private void enqueue(AuditLog entry) {
+        pending.addLast(entry);
+        adjustQuotaCount(entry, 1);
+        if (pendingCount.incrementAndGet() > maxPending) {
+            AuditLog oldest = pending.pollFirst();
+            if (oldest != null) {
+                pendingCount.decrementAndGet();
+                adjustQuotaCount(oldest, -1);
+                dropped.increment();
+            }
+        }
+    }
+
+    private void adjustQuotaCount(AuditLog entry, int delta) {
+        adjustQuotaCount(entry.getUserId(), entry.getAction(), delta);
+    }
+
+    private void adjustQuotaCount(String userId, AuditLog.AuditAction action, int delta) {
+        if (userId == null || !RateLimitService.DAILY_LIMIT_ACTIONS.contains(action)) return;
+        pendingQuotaActions.computeIfAbsent(userId, k -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    /**
+     * Adds the aggregated counts to their window documents. If MongoDB is unavailable or the write fails
+     * the counts are kept for the next flush; a flush failing part way may count some events twice, never
+     * drop them.
+     */
+    private void flushAggregates() {
+        Map<AuditAggregator.Key, AuditAggregator.Bucket> drained = aggregator.drain();
+        if (drained.isEmpty()) return;
+        boolean saved;
+        try {
+            saved = mongoHealthGuard.call(() -> {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuditLog.class);
+                drained.forEach((key, bucket) -> bulk.upsert(
+                        Query.query(Criteria.where("_id").is(key.documentId())),
+                        new Update()
+                                .inc("count", bucket.count)
+                                .max("createdAt", bucket.last)
+                                .setOnInsert("userId", key.userId())
+                                .setOnInsert("userEmail", key.userEmail())
+                                .setOnInsert("action", key.action())
+                                .setOnInsert("registrationNumber", key.registrationNumber())
+                                .setOnInsert("details", key.details())));
+                bulk.execute();
+                return true;
+            }, () -> false);
+        } catch (RuntimeException e) {
+            // E.g. a write-concern error: keep the counts and the schedule, retry on the next run
+            log.warn("Audit aggregate flush failed, retrying in {} ms: {}", aggregateFlushIntervalMs, e.getMessage());
+            saved = false;
+        }
+        if (!saved) {
+            aggregator.restore(drained);
+            return;
+        }
+        drained.forEach((key, bucket) -> adjustQuotaCount(key.userId(), key.action(), -bucket.count));
+    }
+
+    /** Writes journaled entries to MongoDB until the journal is drained or MongoDB is unavailable. */
+    private void ship() {
+        try {
+            AuditJournal.Batch batch;
+            while (!(batch = journal.read(shipBatchSize)).records().isEmpty()) {
+                // Undecodable records are skipped (and counted by decode), so one cannot stall the journal
+                List<AuditLog> entries = batch.records().stream().map(this::decode).filter(Objects::nonNull).toList();
+                boolean saved = entries.isEmpty() || mongoHealthGuard.call(() -> {
+                    saveAll(entries);
+                    return true;
+                }, () -> false);
+                if (!saved) return;
+                // A crash before the commit re-ships the batch; the saves are upserts by id
+                journal.commit(batch.end());
+                entries.forEach(e -> adjustQuotaCount(e, -1));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Audit journal shipping failed, retrying in {} ms: {}", shipIntervalMs, e.getMessage());
+        }
+    }
+
+    /**
+     * One unordered bulk write. Entries carry their id already, so each is a replace-or-insert by id and a
+     * retried batch adds no duplicates.
+     */
+    private void saveAll(List<AuditLog> entries) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuditLog.class);
+        for (AuditLog entry : entries) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(entry.getId())), entry,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    private byte[] encode(AuditLog entry) {
+        try {
+            return journalMapper.writeValueAsBytes(entry);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize audit entry", e);
+        }
+    }
+
+    /** The journaled entry, or null (logged and counted in audit.journal.corrupt) if it cannot be read. */
+    private AuditLog decode(byte[] bytes) {
+        try {
+            return journalMapper.readValue(bytes, AuditLog.class);
+        } catch (IOException e) {
+            log.warn("Skipping corrupt audit journal record of {} bytes: {}", bytes.length, e.getMessage());
+            journalCorrupt.increment();
+            return null;
+        }
+    }
+
+    private void replay() {
+        int written = 0;
+        while (!pending.isEmpty()) {
+            List<AuditLog> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+            AuditLog entry;
+            while (batch.size() < REPLAY_BATCH_SIZE && (entry = pending.pollFirst()) != null) {
+                batch.add(entry);
+            }
+            boolean saved = mongoHealthGuard.call(() -> {
+                saveAll(batch);
+                return true;
+            }, () -> false);
+            if (!saved) {
+                // Mongo went away again: put the batch back in front, in order, for the next recovery
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    pending.addFirst(batch.get(i));
+                }
+                break;
+            }
+            pendingCount.addAndGet(-batch.size());
+            batch.forEach(e -> adjustQuotaCount(e, -1));
+            written += batch.size();
+        }
+        if (written > 0) {
+            log.info("Replayed {} audit entries queued while MongoDB was unavailable", written);
+        }
+    }
+}
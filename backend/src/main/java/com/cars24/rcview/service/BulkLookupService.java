@@ -0,0 +1,270 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.config.AsyncConfig;
+import com.cars24.rcview.dto.VehicleSearchResponse;
+import com.cars24.rcview.entity.VehicleCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk lookup over an uploaded CSV. Rows are read as a stream and resolved in fixed-size batches
+ * (one cache multi-get, then throttled Vahan calls for the misses); each result row is written as soon
+ * as it is resolved, so memory stays bounded by the batch size regardless of file size.
+ * Every resolved row is audited and counted against the daily quota exactly like a single search.
+ */
+@Service
+public class BulkLookupService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkLookupService.class);
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final String CSV_HEADER = "row,registrationNumber,success,fromCache,errorMessage,data";
+
+    private final VehicleSearchService vehicleSearchService;
+    private final VehicleCacheService cacheService;
+    private final RateLimitService rateLimitService;
+
+    @Value("${app.bulk.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.bulk.vahan-rate-per-second:5}")
+    private int vahanRatePerSecond;
+
+    @Value("${app.bulk.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ExecutorService vahanWorkers;
+    private Bucket vahanBucket;
+
+    public BulkLookupService(VehicleSearchService vehicleSearchService, VehicleCacheService cacheService,
+                             RateLimitService rateLimitService) {
+        this.vehicleSearchService = vehicleSearchService;
+        this.cacheService = cacheService;
+        this.rateLimitService = rateLimitService;
+    }
+
+    @PostConstruct
+    void init() {
+        int rate = Math.max(1, vahanRatePerSecond);
+        vahanWorkers = Executors.newFixedThreadPool(Math.max(1, maxConcurrency),
+                AsyncConfig.ioThreadFactory("bulk-lookup-", virtualThreads));
+        vahanBucket = Bucket.builder()
+                .addLimit(Bandwidth.classic(rate, Refill.greedy(rate, Duration.ofSeconds(1))))
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        vahanWorkers.shutdownNow();
+    }
+
+    /**
+     * Admission check for a bulk request, applied once per upload: per-second limit, cooldown and
+     * daily quota. Returns a user-facing error message, or null if the request may proceed.
+     */
+    public String checkAdmission(String userId) {
+        if (!rateLimitService.allowRequest(userId)) {
+            return "Too many requests. Please slow down.";
+        }
+        if (!rateLimitService.searchCooldownPassed(userId)) {
+            return "Please wait a moment before searching again.";
+        }
+        if (!rateLimitService.withinDailyLimit(userId)) {
+            return "Daily search limit reached. Try again tomorrow.";
+        }
+        return null;
+    }
+
+    /**
+     * Reads registration numbers from {@code csv} and writes one result row per input row to {@code out}.
+     * Provider calls get {@code priority}; Vahan calls queue in its lane of the global partner quota, in
+     * rotation with other users' calls.
+     */
+    public void lookup(InputStream csv, OutputStream out, Format format, String userId, String userEmail,
+                       VehicleDataProvider.Priority priority) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER + "\n");
+        }
+        int size = Math.max(1, batchSize);
+        List<BulkRow> batch = new ArrayList<>(size);
+        int rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String regNo = CacheWarmingService.firstCsvCell(line);
+            if (regNo == null) continue;
+            batch.add(new BulkRow(++rowNumber, regNo));
+            if (batch.size() == size) {
+                resolveBatch(batch, writer, format, userId, userEmail, priority);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            resolveBatch(batch, writer, format, userId, userEmail, priority);
+        }
+        writer.flush();
+        log.info("Bulk lookup by {} finished: {} rows", userEmail, rowNumber);
+    }
+
+    private void resolveBatch(List<BulkRow> batch, Writer writer, Format format,
+                              String userId, String userEmail, VehicleDataProvider.Priority priority) throws IOException {
+        // One quota count per batch; rows consume it locally so the count stays exact within the batch
+        long remaining = rateLimitService.getRemainingDailyCount(userId);
+        Instant now = Instant.now();
+
+        // Misses keyed by reg-no: the first row is fetched from Vahan, repeats are then served from the cache
+        Map<String, List<BulkRow>> pending = new LinkedHashMap<>();
+        for (BulkRow row : batch) {
+            row.normalized = VehicleSearchService.normalizeRegNo(row.input);
+        }
+        Map<String, VehicleCache> hits = cacheService.findValidAll(
+                batch.stream().map(r -> r.normalized).distinct().toList(), now);
+
+        for (BulkRow row : batch) {
+            if (remaining <= 0) {
+                writeRow(writer, format, row, error("Daily search limit reached. Try again tomorrow."));
+                continue;
+            }
+            remaining--;
+            VehicleCache hit = hits.get(row.normalized);
+            if (hit != null) {
+                writeRow(writer, format, row, vehicleSearchService.cacheHit(hit, userId, userEmail, now));
+            } else {
+                pending.computeIfAbsent(row.normalized, k -> new ArrayList<>()).add(row);
+            }
+        }
+        writer.flush();
+
+        CompletionService<List<BulkRow>> completion = new ExecutorCompletionService<>(vahanWorkers);
+        Map<Future<List<BulkRow>>, List<BulkRow>> submitted = new HashMap<>();
+        for (List<BulkRow> rows : pending.values()) {
+            submitted.put(completion.submit(() -> {
+                BulkRow first = rows.get(0);
+                vahanBucket.asBlocking().consume(1);
+                first.result = vehicleSearchService.fetchFromVahan(first.input.trim(), first.normalized, userId, userEmail, priority);
+                return rows;
+            }), rows);
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            Future<List<BulkRow>> done;
+            try {
+                done = completion.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Bulk lookup interrupted", e);
+            }
+            try {
+                List<BulkRow> rows = done.get();
+                VehicleSearchResponse first = rows.get(0).result;
+                writeRow(writer, format, rows.get(0), first);
+                for (BulkRow repeat : rows.subList(1, rows.size())) {
+                    VehicleCache cached = first.isSuccess()
+                            ? cacheService.findValid(repeat.normalized, Instant.now()).orElse(null)
+                            : null;
+                    writeRow(writer, format, repeat, cached != null
+                            ? vehicleSearchService.cacheHit(cached, userId, userEmail, Instant.now())
+                            : first);
+                }
+                writer.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Bulk lookup interrupted", e);
+            } catch (ExecutionException e) {
+                String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                log.warn("Bulk lookup row failed: {}", message);
+                // Every input row gets an output row, so the client can tell which ones failed
+                VehicleSearchResponse failure = error("Lookup failed: " + message);
+                for (BulkRow row : submitted.get(done)) {
+                    writeRow(writer, format, row, failure);
+                }
+                writer.flush();
+            }
+        }
+    }
+
+    private void writeRow(Writer writer, Format format, BulkRow row, VehicleSearchResponse result) throws IOException {
+        if (format == Format.NDJSON) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("row", row.number);
+            json.put("success", result.isSuccess());
+            json.put("fromCache", result.isFromCache());
+            json.put("registrationNumber", VehicleSearchService.maskRegNo(row.normalized));
+            if (result.getErrorMessage() != null) json.put("errorMessage", result.getErrorMessage());
+            if (result.getData() != null) json.put("data", result.getData());
+            writer.write(objectMapper.writeValueAsString(json));
+            writer.write("\n");
+            return;
+        }
+        writer.write(row.number + ","
+                + csvCell(VehicleSearchService.maskRegNo(row.normalized)) + ","
+                + result.isSuccess() + ","
+                + result.isFromCache() + ","
+                + csvCell(result.getErrorMessage()) + ","
+                + csvCell(result.getData() != null ? objectMapper.writeValueAsString(result.getData()) : null)
+                + "\n");
+    }
+
+    private static String csvCell(String value) {
+        if (value == null) return "";
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static VehicleSearchResponse error(String message) {
+        return VehicleSearchResponse.builder()
+                .success(false)
+                .errorMessage(message)
+                .build();
+    }
+
+    private static final class BulkRow {
+        final int number;
+        final String input;
+        String normalized;
+        VehicleSearchResponse result;
+
+        BulkRow(int number, String input) {
+            this.number = number;
+            this.input = input;
+        }
+    }
+}
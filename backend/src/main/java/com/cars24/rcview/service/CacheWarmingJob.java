@@ -0,0 +1,56 @@
+package com.cars24.rcview.service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Progress of one admin-triggered cache-warming run. Counters are updated by the worker threads. */
+public class CacheWarmingJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private final String id;
+    private final String startedBy;
+    private final int total;
+    private final Instant startedAt;
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger fetched = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile boolean cancelRequested;
+
+    CacheWarmingJob(String id, String startedBy, int total) {
+        this.id = id;
+        this.startedBy = startedBy;
+        this.total = total;
+        this.startedAt = Instant.now();
+    }
+
+    public String getId() { return id; }
+    public String getStartedBy() { return startedBy; }
+    public int getTotal() { return total; }
+    public Instant getStartedAt() { return startedAt; }
+    public int getSkipped() { return skipped.get(); }
+    public int getFetched() { return fetched.get(); }
+    public int getFailed() { return failed.get(); }
+    public int getProcessed() { return skipped.get() + fetched.get() + failed.get(); }
+    public Status getStatus() { return status; }
+    public Instant getFinishedAt() { return finishedAt; }
+
+    boolean isCancelRequested() { return cancelRequested; }
+    void requestCancel() { cancelRequested = true; }
+
+    void recordSkipped() { skipped.incrementAndGet(); }
+    void recordFetched() { fetched.incrementAndGet(); }
+    void recordFailed() { failed.incrementAndGet(); }
+
+    void finish(Status finalStatus) {
+        this.status = finalStatus;
+        this.finishedAt = Instant.now();
+    }
+}
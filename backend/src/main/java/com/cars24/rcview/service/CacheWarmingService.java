@@ -0,0 +1,255 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.config.AsyncConfig;
+import com.cars24.rcview.entity.AuditLog;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admin-triggered bulk cache warming. Fetches uncached or near-expiry registration numbers from
+ * Vahan ahead of heavy search days, at a global rate and concurrency cap shared by all running jobs.
+ */
+@Lazy
+@Service
+public class CacheWarmingService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmingService.class);
+
+    /** Finished jobs kept for progress queries; older ones are dropped. */
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private final VehicleDataRouter vehicleDataRouter;
+    private final VehicleCacheService cacheService;
+    private final ConfigService configService;
+    private final AuditService auditService;
+
+    @Value("${app.cache-warm.rate-per-second:2}")
+    private int ratePerSecond;
+
+    @Value("${app.cache-warm.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${app.cache-warm.refresh-before-expiry-hours:12}")
+    private int refreshBeforeExpiryHours;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Map<String, CacheWarmingJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, Future<?>> runningJobs = new ConcurrentHashMap<>();
+
+    private ExecutorService coordinators;
+    private ExecutorService workers;
+    private Semaphore inFlight;
+    private Bucket rateBucket;
+
+    public CacheWarmingService(VehicleDataRouter vehicleDataRouter, VehicleCacheService cacheService,
+                               ConfigService configService, AuditService auditService) {
+        this.vehicleDataRouter = vehicleDataRouter;
+        this.cacheService = cacheService;
+        this.configService = configService;
+        this.auditService = auditService;
+    }
+
+    @PostConstruct
+    void init() {
+        int concurrency = Math.max(1, maxConcurrency);
+        int rate = Math.max(1, ratePerSecond);
+        coordinators = Executors.newCachedThreadPool(AsyncConfig.ioThreadFactory("cache-warm-job-", virtualThreads));
+        workers = Executors.newFixedThreadPool(concurrency, AsyncConfig.ioThreadFactory("cache-warm-", virtualThreads));
+        inFlight = new Semaphore(concurrency);
+        rateBucket = Bucket.builder()
+                .addLimit(Bandwidth.classic(rate, Refill.greedy(rate, Duration.ofSeconds(1))))
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinators.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /** Starts a warming job for the given registration numbers (duplicates and blanks are ignored). */
+    public CacheWarmingJob start(Collection<String> registrationNumbers, String startedBy) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String regNo : registrationNumbers) {
+            String n = VehicleSearchService.normalizeRegNo(regNo);
+            if (n != null && !n.isBlank()) {
+                normalized.add(n);
+            }
+        }
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("No registration numbers provided");
+        }
+        if (!vehicleDataRouter.isConfigured()) {
+            throw new IllegalArgumentException("No vehicle data provider is configured (Vahan API key not set); cannot warm the cache.");
+        }
+
+        CacheWarmingJob job = new CacheWarmingJob(UUID.randomUUID().toString(), startedBy, normalized.size());
+        retain(job);
+        auditService.record(AuditLog.builder()
+                .userEmail(startedBy)
+                .action(AuditLog.AuditAction.CACHE_WARM)
+                .details("Cache warming started")
+                .metadata(Map.of("jobId", job.getId(), "total", job.getTotal()))
+                .createdAt(Instant.now())
+                .build());
+        List<String> regNos = new ArrayList<>(normalized);
+        runningJobs.put(job.getId(), coordinators.submit(() -> run(job, regNos)));
+        log.info("Cache warming job {} started by {} for {} registration numbers", job.getId(), startedBy, job.getTotal());
+        return job;
+    }
+
+    public List<CacheWarmingJob> listJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    public Optional<CacheWarmingJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /** Requests cancellation. In-flight Vahan calls finish; no further ones are started. */
+    public boolean cancel(String jobId) {
+        CacheWarmingJob job = jobs.get(jobId);
+        if (job == null || job.getStatus() != CacheWarmingJob.Status.RUNNING) {
+            return false;
+        }
+        job.requestCancel();
+        Future<?> future = runningJobs.get(jobId);
+        if (future != null) {
+            future.cancel(true);
+        }
+        return true;
+    }
+
+    /**
+     * Reads registration numbers from a plain list or CSV file (first column).
+     * Header rows and other cells without a digit are skipped, since every registration number has one.
+     */
+    public static List<String> parseRegistrationList(InputStream in) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String cell = firstCsvCell(line);
+                if (cell != null) {
+                    result.add(cell);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Returns the first CSV cell of the line if it looks like a registration number, else null. */
+    static String firstCsvCell(String line) {
+        int comma = line.indexOf(',');
+        String cell = (comma >= 0 ? line.substring(0, comma) : line).replace("\"", "").trim();
+        if (cell.isEmpty() || cell.chars().noneMatch(Character::isDigit)) {
+            return null;
+        }
+        return cell;
+    }
+
+    private void run(CacheWarmingJob job, List<String> regNos) {
+        Phaser pending = new Phaser(1);
+        try {
+            for (String regNo : regNos) {
+                if (job.isCancelRequested()) break;
+                // Entries that stay valid past the refresh window are fresh enough to skip
+                Instant freshUntil = Instant.now().plus(refreshBeforeExpiryHours, ChronoUnit.HOURS);
+                if (cacheService.findValid(regNo, freshUntil).isPresent()) {
+                    job.recordSkipped();
+                    continue;
+                }
+                rateBucket.asBlocking().consume(1);
+                inFlight.acquire();
+                pending.register();
+                workers.execute(() -> {
+                    try {
+                        warmOne(job, regNo);
+                    } finally {
+                        inFlight.release();
+                        pending.arriveAndDeregister();
+                    }
+                });
+            }
+            pending.arriveAndAwaitAdvance();
+            job.finish(job.isCancelRequested() ? CacheWarmingJob.Status.CANCELLED : CacheWarmingJob.Status.COMPLETED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(CacheWarmingJob.Status.CANCELLED);
+        } catch (Exception e) {
+            log.error("Cache warming job {} failed", job.getId(), e);
+            job.finish(CacheWarmingJob.Status.FAILED);
+        } finally {
+            runningJobs.remove(job.getId());
+            log.info("Cache warming job {} {}: fetched={}, skipped={}, failed={}",
+                    job.getId(), job.getStatus(), job.getFetched(), job.getSkipped(), job.getFailed());
+        }
+    }
+
+    private void warmOne(CacheWarmingJob job, String regNo) {
+        try {
+            VehicleDataResult result = vehicleDataRouter.search(regNo, job.getStartedBy(), VehicleDataProvider.Priority.BACKGROUND);
+            if (result.getErrorMessage() != null || result.getData().isEmpty()) {
+                log.debug("Cache warming: no data for {}: {}", regNo, result.getErrorMessage());
+                job.recordFailed();
+                return;
+            }
+            Instant now = Instant.now();
+            Instant expiresAt = now.plus(configService.getCacheTtlDays(), ChronoUnit.DAYS);
+            cacheService.save(regNo, result.getData().get(), now, expiresAt);
+            job.recordFetched();
+        } catch (Exception e) {
+            log.warn("Cache warming failed for {}: {}", regNo, e.getMessage());
+            job.recordFailed();
+        }
+    }
+
+    private void retain(CacheWarmingJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            var it = jobs.values().iterator();
+            while (jobs.size() > MAX_RETAINED_JOBS && it.hasNext()) {
+                if (it.next().getStatus() != CacheWarmingJob.Status.RUNNING) {
+                    it.remove();
+                }
+            }
+        }
+    }
+}
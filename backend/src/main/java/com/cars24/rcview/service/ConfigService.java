@@ -16,15 +16,21 @@ public class ConfigService {
     private static final String CONFIG_ID = "global";
 
     private final AppConfigRepository configRepository;
+    private final MongoHealthGuard mongoHealthGuard;
 
     /** In-memory cache — avoids a MongoDB round-trip on every request. */
     private volatile AppConfig cachedConfig;
 
-    /** Set after the first DB failure so subsequent calls use defaults instantly. */
+    /** Set after the first DB failure so subsequent calls use defaults instantly, until MongoDB is back. */
     private volatile boolean dbUnavailable;
 
-    public ConfigService(AppConfigRepository configRepository) {
+    /** An admin saved the config while MongoDB was unavailable; written once it is back. */
+    private volatile boolean unsavedChanges;
+
+    public ConfigService(AppConfigRepository configRepository, MongoHealthGuard mongoHealthGuard) {
         this.configRepository = configRepository;
+        this.mongoHealthGuard = mongoHealthGuard;
+        mongoHealthGuard.onRecovery(this::reconcile);
     }
 
     @Value("${app.cache.ttl-days:3}")
@@ -48,7 +54,10 @@ public class ConfigService {
                 return c;
             }
             try {
-                c = configRepository.findById(CONFIG_ID).orElseGet(this::defaultConfig);
+                c = mongoHealthGuard.call(() -> configRepository.findById(CONFIG_ID).orElseGet(this::defaultConfig), () -> {
+                    dbUnavailable = true;
+                    return defaultConfig();
+                });
             } catch (Exception e) {
                 log.warn("MongoDB unavailable for config — using defaults: {}", e.getMessage());
                 dbUnavailable = true;
@@ -96,8 +105,22 @@ public class ConfigService {
         } catch (Exception e) {
             log.warn("MongoDB unavailable – config saved in-memory only: {}", e.getMessage());
             dbUnavailable = true;
+            unsavedChanges = true;
             cachedConfig = config;
             return config;
         }
     }
+
+    /** After a MongoDB outage: writes config changes made meanwhile, or drops the defaults to reload the stored config. */
+    private synchronized void reconcile() {
+        if (!dbUnavailable) return;
+        if (unsavedChanges) {
+            cachedConfig = configRepository.save(cachedConfig);
+            unsavedChanges = false;
+            log.info("Saved config changes made while MongoDB was unavailable");
+        } else {
+            cachedConfig = null;
+        }
+        dbUnavailable = false;
+    }
 }
@@ -0,0 +1,70 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.VehicleCache;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * How old the data for a search may be. {@code maxAgeDays} rejects cache entries fetched longer ago
+ * than that and is sent to Vahan as its {@code maxAge} (0 asks for a live pull); {@code cacheOnly}
+ * never calls Vahan, a miss is reported instead. {@link #DEFAULT}: any unexpired cache entry, and
+ * vahan.api.max-age.
+ */
+public final class Freshness {
+
+    public static final Freshness DEFAULT = new Freshness(null, false);
+
+    /** Vahan's own upper bound for maxAge. */
+    private static final int MAX_AGE_DAYS_LIMIT = 999;
+
+    private final Integer maxAgeDays;
+    private final boolean cacheOnly;
+
+    private Freshness(Integer maxAgeDays, boolean cacheOnly) {
+        this.maxAgeDays = maxAgeDays;
+        this.cacheOnly = cacheOnly;
+    }
+
+    /**
+     * Parses the request options; null or blank values mean the default.
+     *
+     * @throws IllegalArgumentException if maxAgeDays is not a number in 0..999 or cacheOnly not a boolean
+     */
+    public static Freshness parse(String maxAgeDays, String cacheOnly) {
+        Integer days = null;
+        if (maxAgeDays != null && !maxAgeDays.isBlank()) {
+            try {
+                days = Integer.parseInt(maxAgeDays.trim());
+            } catch (NumberFormatException e) {
+                days = -1;
+            }
+            if (days < 0 || days > MAX_AGE_DAYS_LIMIT) {
+                throw new IllegalArgumentException("maxAgeDays must be a number from 0 to " + MAX_AGE_DAYS_LIMIT);
+            }
+        }
+        boolean only = false;
+        if (cacheOnly != null && !cacheOnly.isBlank()) {
+            if (!cacheOnly.trim().equalsIgnoreCase("true") && !cacheOnly.trim().equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("cacheOnly must be true or false");
+            }
+            only = Boolean.parseBoolean(cacheOnly.trim());
+        }
+        return days == null && !only ? DEFAULT : new Freshness(days, only);
+    }
+
+    /** Maximum age in days, or null for no limit beyond the cache TTL. */
+    public Integer maxAgeDays() {
+        return maxAgeDays;
+    }
+
+    public boolean cacheOnly() {
+        return cacheOnly;
+    }
+
+    /** True if the (unexpired) entry is recent enough. */
+    boolean accepts(VehicleCache entry, Instant now) {
+        return maxAgeDays == null
+                || entry.getCachedAt() != null && !entry.getCachedAt().isBefore(now.minus(maxAgeDays, ChronoUnit.DAYS));
+    }
+}
@@ -0,0 +1,34 @@
+package com.cars24.rcview.service;
+
+import java.util.Arrays;
+
+/** Fixed-size window of the most recent call latencies (ms), for percentile-based decisions. */
+class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyWindow(int size) {
+        this.samples = new long[Math.max(1, size)];
+    }
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /** Returns the given percentile (0..1) of the window, or -1 while it is empty. */
+    synchronized long percentile(double p) {
+        if (count == 0) return -1;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+}
@@ -0,0 +1,156 @@
+package com.cars24.rcview.service;
+
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for MongoDB. The first connection failure (server selection timeout, socket error)
+ * marks Mongo as down: from then on {@link #call} skips it and returns the caller's in-memory fallback
+ * at once, instead of every request waiting out the driver timeout. A background probe pings Mongo
+ * every probe-interval-ms; once it answers, Mongo is marked up and the recovery listeners replay
+ * the writes queued in the meantime.
+ */
+@Service
+public class MongoHealthGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoHealthGuard.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+
+    @Value("${app.degraded.probe-interval-ms:5000}")
+    private long probeIntervalMs;
+
+    private volatile boolean down;
+    private ScheduledExecutorService prober;
+
+    public MongoHealthGuard(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("mongo.available", this, g -> g.down ? 0 : 1).register(meterRegistry);
+        prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mongo-health-probe");
+            t.setDaemon(true);
+            return t;
+        });
+        prober.scheduleWithFixedDelay(this::probe, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        prober.shutdownNow();
+    }
+
+    public boolean isAvailable() {
+        return !down;
+    }
+
+    /** Registers work to run (on the probe thread) each time Mongo comes back, e.g. replaying queued writes. */
+    public void onRecovery(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+
+    /**
+     * Runs the Mongo operation, or returns {@code fallback} if Mongo is down or the operation fails to
+     * reach it. Other errors (bad query, duplicate key) are rethrown as before.
+     */
+    public <T> T call(Supplier<T> operation, Supplier<T> fallback) {
+        if (down) {
+            return fallback.get();
+        }
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            // A cancelled (interrupted) operation says nothing about MongoDB's health
+            if (!isConnectionFailure(e) || Thread.currentThread().isInterrupted()) throw e;
+            markDown(e);
+            return fallback.get();
+        }
+    }
+
+    /** {@link #call} for operations without a result. */
+    public void run(Runnable operation, Runnable fallback) {
+        call(() -> {
+            operation.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    /** {@link #call} for a non-blocking operation, e.g. a reactive repository query. */
+    public <T> Mono<T> call(Mono<T> operation, Supplier<T> fallback) {
+        return Mono.defer(() -> {
+            if (down) {
+                return Mono.fromSupplier(fallback);
+            }
+            return operation.onErrorResume(MongoHealthGuard::isConnectionFailure, e -> {
+                markDown(e);
+                return Mono.fromSupplier(fallback);
+            });
+        });
+    }
+
+    static boolean isConnectionFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataAccessResourceFailureException
+                    || t instanceof MongoTimeoutException
+                    || t instanceof MongoSocketException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markDown(Throwable e) {
+        if (!down) {
+            down = true;
+            meterRegistry.counter("mongo.degraded.trips").increment();
+            log.warn("MongoDB unreachable, switching to degraded mode (in-memory cache, local quotas, queued writes): {}",
+                    e.getMessage());
+        }
+    }
+
+    private void probe() {
+        if (!down) return;
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (RuntimeException e) {
+            log.debug("MongoDB still unreachable: {}", e.getMessage());
+            return;
+        }
+        down = false;
+        log.info("MongoDB reachable again, leaving degraded mode and replaying queued writes");
+        for (Runnable listener : recoveryListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("Recovery step failed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -19,6 +19,8 @@ public class RateLimitService {
 
     private final ConfigService configService;
     private final AuditLogRepository auditLogRepository;
+    private final AuditService auditService;
+    private final MongoHealthGuard mongoHealthGuard;
 
     @Value("${app.dev-mode:false}")
     private boolean devMode;
@@ -27,35 +29,75 @@ public class RateLimitService {
     private final Map<String, Instant> lastSearchTime = new ConcurrentHashMap<>();
 
     /** Minimum interval between search requests per user (prevents abuse from DevTools / curl). */
-    private static final long SEARCH_COOLDOWN_MS = 2000;
+    @Value("${app.rate-limit.search-cooldown-ms:2000}")
+    private long searchCooldownMs;
 
-    private static final List<AuditAction> DAILY_LIMIT_ACTIONS = List.of(
+    static final List<AuditAction> DAILY_LIMIT_ACTIONS = List.of(
             AuditAction.SEARCH, AuditAction.CACHE_HIT, AuditAction.API_CALL);
 
-    public RateLimitService(ConfigService configService, AuditLogRepository auditLogRepository) {
+    /** Last daily count read from MongoDB per user, the baseline for quota checks while it is unavailable. */
+    private final Map<String, Long> lastKnownDailyCounts = new ConcurrentHashMap<>();
+
+    /** Searches allowed while MongoDB is unavailable to a user whose count was never read. */
+    @Value("${app.degraded.unknown-user-daily-allowance:20}")
+    private long unknownUserDailyAllowance;
+
+    public RateLimitService(ConfigService configService, AuditLogRepository auditLogRepository,
+                            AuditService auditService, MongoHealthGuard mongoHealthGuard) {
         this.configService = configService;
         this.auditLogRepository = auditLogRepository;
+        this.auditService = auditService;
+        this.mongoHealthGuard = mongoHealthGuard;
     }
 
     public boolean allowRequest(String userId) {
-        Bucket bucket = perUserBuckets.computeIfAbsent(userId, k -> createBucket());
+        Bucket bucket = perUserBuckets.get(userId);
+        if (bucket == null) {
+            // Built outside computeIfAbsent: reading the config may hit MongoDB and must not hold the map lock
+            Bucket created = createBucket();
+            bucket = perUserBuckets.computeIfAbsent(userId, k -> created);
+        }
         return bucket.tryConsume(1);
     }
 
     public boolean withinDailyLimit(String userId) {
         if (devMode) return true;
         int limit = configService.getRateLimitPerDayDefault();
-        Instant since = Instant.now().minus(Duration.ofDays(1));
-        long count = auditLogRepository.countByUserIdAndActionInAndCreatedAtAfter(userId, DAILY_LIMIT_ACTIONS, since);
-        return count < limit;
+        return dailyCount(userId) < limit;
     }
 
     public long getRemainingDailyCount(String userId) {
         if (devMode) return 999L;
         int limit = configService.getRateLimitPerDayDefault();
+        return Math.max(0, limit - dailyCount(userId));
+    }
+
+    /**
+     * Quota-counted actions in the last 24 hours: the count in MongoDB plus entries still queued for it.
+     * While MongoDB is unavailable the last count read from it stands in for the stored part; for a user
+     * without one, the count is taken as all but unknown-user-daily-allowance of the limit used.
+     */
+    private long dailyCount(String userId) {
         Instant since = Instant.now().minus(Duration.ofDays(1));
-        long count = auditLogRepository.countByUserIdAndActionInAndCreatedAtAfter(userId, DAILY_LIMIT_ACTIONS, since);
-        return Math.max(0, limit - count);
+        long stored = mongoHealthGuard.call(() -> {
+            Long events = auditLogRepository.sumEventsByUserIdAndActionInAndCreatedAtAfter(userId, DAILY_LIMIT_ACTIONS, since);
+            long count = events != null ? events : 0;
+            rememberStoredDailyCount(userId, count);
+            return count;
+        }, () -> degradedStoredDailyCount(userId));
+        return stored + auditService.pendingQuotaActions(userId);
+    }
+
+    /** Keeps the count just read from MongoDB as the baseline for when it becomes unavailable. */
+    void rememberStoredDailyCount(String userId, long count) {
+        lastKnownDailyCounts.put(userId, count);
+    }
+
+    /** Stands in for the stored part of the daily count while MongoDB is unavailable. */
+    long degradedStoredDailyCount(String userId) {
+        Long lastKnown = lastKnownDailyCounts.get(userId);
+        return lastKnown != null ? lastKnown
+                : Math.max(0, configService.getRateLimitPerDayDefault() - unknownUserDailyAllowance);
     }
 
     /**
@@ -65,7 +107,7 @@ public class RateLimitService {
     public boolean searchCooldownPassed(String userId) {
         Instant now = Instant.now();
         Instant last = lastSearchTime.get(userId);
-        if (last != null && Duration.between(last, now).toMillis() < SEARCH_COOLDOWN_MS) {
+        if (last != null && Duration.between(last, now).toMillis() < searchCooldownMs) {
             return false;
         }
         lastSearchTime.put(userId, now);
@@ -0,0 +1,73 @@
+package com.cars24.rcview.service;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking Vahan client for the reactive search pipeline. Same request, response parsing, result
+ * shape and user-facing error messages as {@link VahanApiClient}; only the transport differs.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveVahanApiClient {
+
+    private final VahanApiClient vahanApiClient;
+    private final WebClient webClient;
+
+    public ReactiveVahanApiClient(VahanApiClient vahanApiClient, WebClient vahanWebClient) {
+        this.vahanApiClient = vahanApiClient;
+        this.webClient = vahanWebClient;
+    }
+
+    /**
+     * Calls Vahan once the global partner quota grants a slot in the caller's lane (waiting without
+     * blocking a thread), with the same retry policy as {@link VahanApiClient}.
+     * Never errors — failures are mapped to a result with a user-facing message.
+     */
+    public Mono<VehicleDataResult> search(String vehicleNumber, String callerId, VahanQuotaScheduler.Lane lane) {
+        if (!vahanApiClient.isApiKeyConfigured()) {
+            return Mono.just(vahanApiClient.toResult(vahanApiClient.missingKey()));
+        }
+        return Mono.defer(() -> attempt(vehicleNumber, callerId, lane, 1, vahanApiClient.retryDeadline()))
+                .map(vahanApiClient::toResult);
+    }
+
+    private Mono<VahanSearchResult> attempt(String vehicleNumber, String callerId, VahanQuotaScheduler.Lane lane,
+                                            int attempt, long deadline) {
+        return Mono.fromFuture(() -> vahanApiClient.requestQuota(callerId, lane, attempt, deadline))
+                .flatMap(outcome -> {
+                    if (outcome != VahanQuotaScheduler.Outcome.GRANTED) {
+                        return Mono.just(VahanApiClient.quotaRejected(outcome));
+                    }
+                    return call(vehicleNumber).flatMap(result -> {
+                        long delayMs = vahanApiClient.nextRetryDelayMs(vehicleNumber, result, attempt, deadline);
+                        if (delayMs < 0) {
+                            return Mono.just(result);
+                        }
+                        return Mono.delay(Duration.ofMillis(delayMs))
+                                .then(attempt(vehicleNumber, callerId, lane, attempt + 1, deadline));
+                    });
+                });
+    }
+
+    private Mono<VahanSearchResult> call(String vehicleNumber) {
+        return webClient.get()
+                .uri(vahanApiClient.searchUrl(vehicleNumber))
+                .header("x-api-key", vahanApiClient.getApiKey())
+                .retrieve()
+                .bodyToMono(String.class)
+                .flatMap(body -> Mono.fromCallable(() -> vahanApiClient.parseResponse(body)))
+                .switchIfEmpty(Mono.fromCallable(() -> vahanApiClient.parseResponse(null)))
+                .onErrorResume(WebClientResponseException.class, e ->
+                        Mono.just(vahanApiClient.httpError(e.getStatusCode().value(), vehicleNumber, e.getResponseBodyAsString())))
+                // Connection failures and response timeouts
+                .onErrorResume(WebClientRequestException.class, e -> Mono.just(vahanApiClient.callFailed(vehicleNumber, e, true)))
+                .onErrorResume(e -> Mono.just(vahanApiClient.callFailed(vehicleNumber, e)));
+    }
+}
@@ -0,0 +1,204 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.dto.VehicleSearchResponse;
+import com.cars24.rcview.entity.AppUser;
+import com.cars24.rcview.entity.AuditLog;
+import com.cars24.rcview.entity.VehicleCache;
+import com.cars24.rcview.repository.ReactiveAuditLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reactive implementation of the search path ("reactive" profile), for comparison with
+ * {@link VehicleSearchService} under the same load. Same checks, audit entries and responses, but the
+ * daily-quota count and the Vahan call are non-blocking, and the count runs concurrently with the cache
+ * lookup. Cache reads and writes and audit entries go through the servlet path's {@link VehicleCacheService}
+ * and {@link AuditService} on boundedElastic threads, so history, the identifier index, audit aggregation,
+ * quota counting and the degraded mode while MongoDB is down behave the same on both; the count falls back
+ * to {@link RateLimitService}'s local baseline then.
+ * <p>
+ * The per-second limit and cooldown are in-memory checks shared with the servlet path, so both
+ * implementations draw from the same per-user buckets.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveVehicleSearchService {
+
+    private final ReactiveAuditLogRepository auditLogRepository;
+    private final ReactiveVahanApiClient vahanApiClient;
+    private final VehicleCacheService cacheService;
+    private final AuditService auditService;
+    private final ConfigService configService;
+    private final RateLimitService rateLimitService;
+    private final MongoHealthGuard mongoHealthGuard;
+
+    @Value("${app.dev-mode:false}")
+    private boolean devMode;
+
+    public ReactiveVehicleSearchService(ReactiveAuditLogRepository auditLogRepository,
+                                        ReactiveVahanApiClient vahanApiClient, VehicleCacheService cacheService,
+                                        AuditService auditService, ConfigService configService,
+                                        RateLimitService rateLimitService, MongoHealthGuard mongoHealthGuard) {
+        this.auditLogRepository = auditLogRepository;
+        this.vahanApiClient = vahanApiClient;
+        this.cacheService = cacheService;
+        this.auditService = auditService;
+        this.configService = configService;
+        this.rateLimitService = rateLimitService;
+        this.mongoHealthGuard = mongoHealthGuard;
+    }
+
+    /**
+     * Searches for the registration number on behalf of the given user. The user is passed in rather than
+     * read from the security context, which is thread-bound and not visible on the event-loop threads.
+     */
+    public Mono<VehicleSearchResponse> search(String registrationNumber, String userId, String userEmail,
+                                              AppUser.Role role) {
+        if (userId == null) {
+            return Mono.just(error("Unauthorized"));
+        }
+        String normalized = VehicleSearchService.normalizeRegNo(registrationNumber);
+        if (!rateLimitService.allowRequest(userId)) {
+            return auditRejection(userId, userEmail, "RATE_LIMIT_PER_SECOND")
+                    .thenReturn(error("Too many requests. Please slow down."));
+        }
+        if (!rateLimitService.searchCooldownPassed(userId)) {
+            return Mono.just(error("Please wait a moment before searching again."));
+        }
+        if (normalized == null || normalized.isBlank()) {
+            return Mono.just(error("Invalid registration number"));
+        }
+
+        Instant now = Instant.now();
+        return Mono.zip(remainingDailyCount(userId, now), findValid(normalized, now))
+                .flatMap(t -> {
+                    if (t.getT1() <= 0) {
+                        return Mono.just(error("Daily search limit reached. Try again tomorrow."));
+                    }
+                    Optional<VehicleCache> cached = t.getT2();
+                    if (cached.isPresent()) {
+                        VehicleCache vc = cached.get();
+                        return audit(AuditLog.AuditAction.CACHE_HIT, userId, userEmail, normalized, null, now)
+                                .thenReturn(VehicleSearchResponse.builder()
+                                        .success(true)
+                                        .fromCache(true)
+                                        .registrationNumber(VehicleSearchService.maskRegNo(vc.getRegNoNormalized()))
+                                        .data(VehicleSearchService.maskDataFields(vc.getResponseData()))
+                                        .cachedAt(vc.getCachedAt())
+                                        .build());
+                    }
+                    return fetchFromVahan(registrationNumber.trim(), normalized, userId, userEmail, VahanQuotaScheduler.Lane.of(role));
+                });
+    }
+
+    private Mono<VehicleSearchResponse> fetchFromVahan(String rawRegNo, String normalized, String userId, String userEmail,
+                                                       VahanQuotaScheduler.Lane lane) {
+        return vahanApiClient.search(rawRegNo, userId, lane).flatMap(apiResult -> {
+            Instant now = Instant.now();
+            if (apiResult.getErrorMessage() != null) {
+                return Mono.just(VehicleSearchResponse.builder()
+                        .success(false)
+                        .fromCache(false)
+                        .registrationNumber(normalized)
+                        .errorMessage(apiResult.getErrorMessage())
+                        .build());
+            }
+            if (apiResult.getData().isEmpty()) {
+                return audit(AuditLog.AuditAction.SEARCH, userId, userEmail, normalized, "NO_DATA", now)
+                        .thenReturn(VehicleSearchResponse.builder()
+                                .success(false)
+                                .fromCache(false)
+                                .registrationNumber(normalized)
+                                .errorMessage("No data found for this registration number. The number may be invalid or not in the Vahan database.")
+                                .build());
+            }
+            Map<String, Object> dataMap = apiResult.getData().get();
+            Instant expiresAt = now.plus(configService.getCacheTtlDays(), ChronoUnit.DAYS);
+            return save(normalized, dataMap, now, expiresAt)
+                    .then(audit(AuditLog.AuditAction.API_CALL, userId, userEmail, normalized, null, now))
+                    .thenReturn(VehicleSearchResponse.builder()
+                            .success(true)
+                            .fromCache(false)
+                            .registrationNumber(VehicleSearchService.maskRegNo(normalized))
+                            .data(VehicleSearchService.maskDataFields(dataMap))
+                            .cachedAt(now)
+                            .build());
+        });
+    }
+
+    /** Like {@link RateLimitService#getRemainingDailyCount}: stored events plus those not yet written. */
+    private Mono<Long> remainingDailyCount(String userId, Instant now) {
+        if (devMode) return Mono.just(999L);
+        int limit = configService.getRateLimitPerDayDefault();
+        Mono<Long> storedCount = auditLogRepository
+                .sumEventsByUserIdAndActionInAndCreatedAtAfter(userId, RateLimitService.DAILY_LIMIT_ACTIONS, now.minus(Duration.ofDays(1)))
+                .defaultIfEmpty(0L)
+                .doOnNext(count -> rateLimitService.rememberStoredDailyCount(userId, count));
+        return mongoHealthGuard.call(storedCount, () -> rateLimitService.degradedStoredDailyCount(userId))
+                .map(stored -> Math.max(0, limit - stored - auditService.pendingQuotaActions(userId)));
+    }
+
+    /** {@link VehicleCacheService#findValid} blocks (and serves the in-memory tier without MongoDB). */
+    private Mono<Optional<VehicleCache>> findValid(String normalized, Instant now) {
+        return Mono.fromCallable(() -> cacheService.findValid(normalized, now))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Through {@link VehicleCacheService#save}, the single cache write path, so the change is kept in the
+     * vehicle's history and the identifier index is updated. It blocks, so it runs off the event loop.
+     */
+    private Mono<VehicleCache> save(String normalized, Map<String, Object> data, Instant cachedAt, Instant expiresAt) {
+        return Mono.fromCallable(() -> cacheService.save(normalized, data, cachedAt, expiresAt))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** {@link AuditService#record} may write to MongoDB or the journal, so it runs off the event loop. */
+    private Mono<Void> audit(AuditLog.AuditAction action, String userId, String userEmail,
+                             String registrationNumber, String details, Instant createdAt) {
+        if (devMode) return Mono.empty();
+        AuditLog entry = AuditLog.builder()
+                .userId(userId)
+                .userEmail(userEmail)
+                .action(action)
+                .registrationNumber(registrationNumber)
+                .details(details)
+                .createdAt(createdAt)
+                .build();
+        return Mono.fromRunnable(() -> auditService.record(entry))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    /** Summarized like the servlet path's rejections, see {@link AuditService#recordRejection}. */
+    private Mono<Void> auditRejection(String userId, String userEmail, String details) {
+        if (devMode) return Mono.empty();
+        AuditLog entry = AuditLog.builder()
+                .userId(userId)
+                .userEmail(userEmail)
+                .action(AuditLog.AuditAction.SEARCH)
+                .details(details)
+                .createdAt(Instant.now())
+                .build();
+        // Only a full aggregator makes this write to MongoDB, but that must not happen on the event loop
+        return Mono.fromRunnable(() -> auditService.recordRejection(entry))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private static VehicleSearchResponse error(String message) {
+        return VehicleSearchResponse.builder()
+                .success(false)
+                .errorMessage(message)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.RecentSearches;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fixed-size ring of one user's recent searches: adding to a full ring overwrites the oldest entry.
+ * A registration number appears at most once; searching it again moves it to the front.
+ * <p>
+ * A ring is either loaded (it holds the stored searches) or, if they could not be read, unloaded: it
+ * then only collects new searches until {@link #merge} adds the stored ones behind them.
+ */
+final class RecentSearchRing {
+
+    private final RecentSearches.Item[] slots;
+    /** Physical index of the newest entry. */
+    private int newest = -1;
+    private int size;
+    private boolean loaded;
+
+    /** A loaded ring holding {@code items} (newest first; any beyond capacity are dropped). */
+    RecentSearchRing(int capacity, List<RecentSearches.Item> items) {
+        this.slots = new RecentSearches.Item[capacity];
+        fill(items);
+        this.loaded = true;
+    }
+
+    /** An empty, unloaded ring. */
+    RecentSearchRing(int capacity) {
+        this.slots = new RecentSearches.Item[capacity];
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Loads the stored searches (newest first) behind the ones added since the ring was created. Returns
+     * true if the ring now differs from what is stored, i.e. searches were added meanwhile.
+     */
+    synchronized boolean merge(List<RecentSearches.Item> stored) {
+        if (loaded) return false;
+        loaded = true;
+        List<RecentSearches.Item> items = newestFirst();
+        if (items.isEmpty()) {
+            fill(stored);
+            return false;
+        }
+        for (RecentSearches.Item item : stored) {
+            if (items.stream().noneMatch(i -> i.getRegNoNormalized().equals(item.getRegNoNormalized()))) {
+                items.add(item);
+            }
+        }
+        Arrays.fill(slots, null);
+        newest = -1;
+        size = 0;
+        fill(items);
+        return true;
+    }
+
+    /** Adds the search at the front; a number already in the ring keeps its id, so replay links stay valid. */
+    synchronized void add(String regNoNormalized, Instant searchedAt) {
+        String id = null;
+        for (int i = 0; i < size; i++) {
+            if (slots[slot(i)].getRegNoNormalized().equals(regNoNormalized)) {
+                id = slots[slot(i)].getId();
+                removeAt(i);
+                break;
+            }
+        }
+        if (id == null) {
+            id = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        }
+        push(new RecentSearches.Item(id, regNoNormalized, searchedAt));
+    }
+
+    /** The entry with the given id, or null. */
+    synchronized RecentSearches.Item find(String id) {
+        for (int i = 0; i < size; i++) {
+            if (slots[slot(i)].getId().equals(id)) return slots[slot(i)];
+        }
+        return null;
+    }
+
+    synchronized List<RecentSearches.Item> newestFirst() {
+        List<RecentSearches.Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(slots[slot(i)]);
+        }
+        return items;
+    }
+
+    private void fill(List<RecentSearches.Item> newestFirst) {
+        for (int i = Math.min(newestFirst.size(), slots.length) - 1; i >= 0; i--) {
+            push(newestFirst.get(i));
+        }
+    }
+
+    private void push(RecentSearches.Item item) {
+        newest = (newest + 1) % slots.length;
+        slots[newest] = item;
+        size = Math.min(size + 1, slots.length);
+    }
+
+    /** Closes the gap at logical position {@code position} (0 = newest) by moving the newer entries back. */
+    private void removeAt(int position) {
+        for (int i = position; i > 0; i--) {
+            slots[slot(i)] = slots[slot(i - 1)];
+        }
+        slots[newest] = null;
+        newest = (newest - 1 + slots.length) % slots.length;
+        size--;
+    }
+
+    private int slot(int position) {
+        return (newest - position + slots.length) % slots.length;
+    }
+}
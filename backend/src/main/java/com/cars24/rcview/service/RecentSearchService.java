@@ -0,0 +1,173 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.RecentSearches;
+import com.cars24.rcview.repository.RecentSearchesRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each user's last successful searches, kept server-side so they follow the user across devices.
+ * Searches are added to an in-memory {@link RecentSearchRing} per user; rings are loaded from
+ * recent_searches on first use and written back every flush-interval-ms if they changed, so searching
+ * costs no extra MongoDB write. A ring that could not be loaded (MongoDB unavailable) is never written;
+ * searches made meanwhile are merged with the stored ones once loading succeeds. Clients only see masked numbers and an id to replay the search with.
+ * In dev mode the rings are in memory only.
+ */
+@Service
+public class RecentSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecentSearchService.class);
+
+    private final RecentSearchesRepository repository;
+    private final MongoHealthGuard mongoHealthGuard;
+    /** Rings of recently active users; least recently used ones are dropped beyond max-users. */
+    private final Map<String, RecentSearchRing> rings;
+    /** Rings changed since the last flush. Also keeps an evicted ring until it is written. */
+    private final Map<String, RecentSearchRing> dirty = new ConcurrentHashMap<>();
+
+    @Value("${app.dev-mode:false}")
+    private boolean devMode;
+
+    @Value("${app.recent-searches.size:20}")
+    private int size;
+
+    @Value("${app.recent-searches.flush-interval-ms:30000}")
+    private long flushIntervalMs;
+
+    private ScheduledExecutorService flusher;
+
+    public RecentSearchService(RecentSearchesRepository repository, MongoHealthGuard mongoHealthGuard,
+                               @Value("${app.recent-searches.max-users:10000}") int maxUsers) {
+        this.repository = repository;
+        this.mongoHealthGuard = mongoHealthGuard;
+        this.rings = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RecentSearchRing> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    @PostConstruct
+    void start() {
+        if (devMode) return;
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "recent-searches-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher == null) return;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /** Adds a successful search of the normalized reg-no. */
+    void record(String userId, String regNoNormalized, Instant searchedAt) {
+        RecentSearchRing ring = ring(userId);
+        ring.add(regNoNormalized, searchedAt);
+        // An unloaded ring is not written, or it would replace the stored searches; merge marks it dirty
+        if (!devMode && ring.isLoaded()) {
+            dirty.put(userId, ring);
+        }
+    }
+
+    /** The user's recent searches, newest first: id, masked registrationNumber and searchedAt. */
+    public List<Map<String, Object>> list(String userId) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (RecentSearches.Item item : ring(userId).newestFirst()) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("id", item.getId());
+            m.put("registrationNumber", VehicleSearchService.maskRegNo(item.getRegNoNormalized()));
+            m.put("searchedAt", item.getSearchedAt());
+            result.add(m);
+        }
+        return result;
+    }
+
+    /** The normalized reg-no of the user's recent search with this id, or null if it is no longer in the ring. */
+    String resolve(String userId, String id) {
+        RecentSearches.Item item = ring(userId).find(id);
+        return item != null ? item.getRegNoNormalized() : null;
+    }
+
+    private RecentSearchRing ring(String userId) {
+        RecentSearchRing ring = rings.get(userId);
+        if (ring == null) {
+            ring = dirty.get(userId);
+            if (ring == null) {
+                ring = devMode ? new RecentSearchRing(size, List.of()) : new RecentSearchRing(size);
+            }
+            RecentSearchRing existing = rings.putIfAbsent(userId, ring);
+            if (existing != null) {
+                ring = existing;
+            }
+        }
+        if (!ring.isLoaded()) {
+            load(userId, ring);
+        }
+        return ring;
+    }
+
+    /**
+     * Reads the user's stored searches into the ring. While MongoDB is unavailable the ring stays
+     * unloaded and is tried again on the next access.
+     */
+    private void load(String userId, RecentSearchRing ring) {
+        List<RecentSearches.Item> stored = mongoHealthGuard.call(
+                () -> repository.findById(userId)
+                        .map(RecentSearches::getItems)
+                        .orElse(List.of()),
+                () -> null);
+        if (stored == null) return;
+        if (ring.merge(stored)) {
+            dirty.put(userId, ring);
+        }
+    }
+
+    /** Writes the changed rings; on failure they stay queued for the next run. */
+    void flush() {
+        if (dirty.isEmpty()) return;
+        Map<String, RecentSearchRing> flushing = new HashMap<>();
+        List<RecentSearches> documents = new ArrayList<>();
+        Instant now = Instant.now();
+        for (String userId : new ArrayList<>(dirty.keySet())) {
+            // Removed before the snapshot: a search added meanwhile marks the ring dirty again
+            RecentSearchRing ring = dirty.remove(userId);
+            if (ring == null) continue;
+            flushing.put(userId, ring);
+            documents.add(new RecentSearches(userId, ring.newestFirst(), now));
+        }
+        try {
+            mongoHealthGuard.run(() -> repository.saveAll(documents), () -> flushing.forEach(dirty::putIfAbsent));
+        } catch (RuntimeException e) {
+            log.warn("Could not store recent searches of {} users: {}", flushing.size(), e.getMessage());
+            flushing.forEach(dirty::putIfAbsent);
+        }
+    }
+}
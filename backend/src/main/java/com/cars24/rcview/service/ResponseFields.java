@@ -0,0 +1,81 @@
+package com.cars24.rcview.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * The subset of vehicle data keys a caller asked for ({@code fields=owner,model} or a named profile).
+ * Cache reads project MongoDB to these keys, and responses are trimmed to them before masking, so
+ * unused parts of the RC payload are neither read nor sent. {@link #ALL} keeps the whole payload.
+ */
+public final class ResponseFields {
+
+    public static final ResponseFields ALL = new ResponseFields(null);
+
+    /** Plain top-level keys only: no dots or $ operators in the Mongo projection. */
+    private static final Pattern FIELD_NAME = Pattern.compile("[A-Za-z0-9_]{1,64}");
+    private static final int MAX_FIELDS = 64;
+
+    /** Sorted, so equal selections have equal {@link #key()}s; null for all fields. */
+    private final Set<String> names;
+
+    private ResponseFields(Set<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * Parses a comma-separated list of data keys; null or blank means all fields.
+     *
+     * @throws IllegalArgumentException on an invalid key or too many keys
+     */
+    public static ResponseFields parse(String csv) {
+        if (csv == null || csv.isBlank()) return ALL;
+        Set<String> names = new TreeSet<>();
+        for (String name : csv.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) continue;
+            if (!FIELD_NAME.matcher(trimmed).matches()) {
+                throw new IllegalArgumentException("Invalid field name: " + trimmed);
+            }
+            names.add(trimmed);
+        }
+        if (names.isEmpty()) return ALL;
+        if (names.size() > MAX_FIELDS) {
+            throw new IllegalArgumentException("At most " + MAX_FIELDS + " fields can be requested");
+        }
+        return new ResponseFields(Collections.unmodifiableSet(names));
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    /** The requested keys; empty for {@link #ALL}. */
+    public Set<String> names() {
+        return names != null ? names : Set.of();
+    }
+
+    /** Identifies the selection (e.g. in ETags); empty for {@link #ALL}. */
+    public String key() {
+        return names != null ? String.join(",", names) : "";
+    }
+
+    /** The requested keys of {@code data}, as a new map; {@code data} itself for {@link #ALL}. */
+    Map<String, Object> apply(Map<String, Object> data) {
+        if (names == null) return data;
+        // A projection matching none of the keys leaves no responseData at all
+        if (data == null) return Map.of();
+        Map<String, Object> selected = new HashMap<>(names.size() * 2);
+        for (String name : names) {
+            Object value = data.get(name);
+            if (value != null) {
+                selected.put(name, value);
+            }
+        }
+        return selected;
+    }
+}
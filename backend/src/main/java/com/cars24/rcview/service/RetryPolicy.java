@@ -0,0 +1,56 @@
+package com.cars24.rcview.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded retry for retryable Vahan failures: exponential backoff with full jitter (a random delay
+ * between 0 and base * 2^(attempt-1), capped at max-delay), at most max-attempts calls, and no retry
+ * unless the backoff plus a whole attempt (attempt-timeout) still ends before the overall deadline.
+ */
+class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long deadlineMs;
+    private final long attemptTimeoutMs;
+
+    RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs, long deadlineMs, long attemptTimeoutMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.deadlineMs = deadlineMs;
+        this.attemptTimeoutMs = Math.max(0, attemptTimeoutMs);
+    }
+
+    /** Deadline (System.nanoTime) for a search that started at startNanos. */
+    long deadline(long startNanos) {
+        return startNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+    }
+
+    /**
+     * Returns the delay in ms before the next attempt, or -1 if the failure must not be retried:
+     * it is not retryable, all attempts are used, or the next attempt could run past the deadline.
+     */
+    long nextDelayMs(VahanSearchResult result, int attemptsMade, long deadlineNanos) {
+        if (!result.isRetryable() || attemptsMade >= maxAttempts) {
+            return -1;
+        }
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attemptsMade - 1, 20));
+        long delayMs = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs + attemptTimeoutMs) > deadlineNanos) {
+            return -1;
+        }
+        return delayMs;
+    }
+
+    /**
+     * Longest a retry may wait for its quota token: whatever is left of the deadline after reserving
+     * attempt-timeout for the call itself (0 means only an immediately available token will do).
+     */
+    long maxQuotaWaitMs(long deadlineNanos) {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        return Math.max(0, remainingMs - attemptTimeoutMs);
+    }
+}
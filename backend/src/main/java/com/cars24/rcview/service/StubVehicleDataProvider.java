@@ -0,0 +1,58 @@
+package com.cars24.rcview.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local provider with made-up data, for tests and development without a Vahan key. Only used when
+ * "stub" is listed in vehicle-data.providers. delay-ms and fail-fraction simulate a slow or failing
+ * upstream, to exercise the routing strategies.
+ */
+@Service
+public class StubVehicleDataProvider implements VehicleDataProvider {
+
+    @Value("${vehicle-data.stub.delay-ms:0}")
+    private long delayMs;
+
+    @Value("${vehicle-data.stub.fail-fraction:0}")
+    private double failFraction;
+
+    @Override
+    public String name() {
+        return "stub";
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return true;
+    }
+
+    @Override
+    public VehicleDataResult search(String vehicleNumber, String callerId, Priority priority) {
+        if (delayMs > 0) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return VehicleDataResult.unavailable("Stub provider interrupted.");
+            }
+        }
+        if (failFraction > 0 && ThreadLocalRandom.current().nextDouble() < failFraction) {
+            return VehicleDataResult.unavailable("Stub provider failure (vehicle-data.stub.fail-fraction).");
+        }
+        String regNo = VehicleSearchService.normalizeRegNo(vehicleNumber);
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("regNo", regNo);
+        data.put("owner", "Stub Owner");
+        data.put("maker", "Stub Motors");
+        data.put("model", "Stub " + (regNo.length() > 2 ? regNo.substring(regNo.length() - 2) : regNo));
+        data.put("fuelType", "PETROL");
+        data.put("insuranceUpto", "2030-01-01");
+        data.put("fitnessUpto", "2035-01-01");
+        return VehicleDataResult.ok(data);
+    }
+}
@@ -1,7 +1,12 @@
 package com.cars24.rcview.service;
 
+import com.cars24.rcview.config.AsyncConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,35 +16,65 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /** Result of a Vahan API call: either data or an error message to show the user. */
 class VahanSearchResult {
     private final Optional<JsonNode> data;
     private final String errorMessage;
+    private final boolean transientFailure;
+    private final boolean retryable;
 
-    private VahanSearchResult(Optional<JsonNode> data, String errorMessage) {
+    private VahanSearchResult(Optional<JsonNode> data, String errorMessage, boolean transientFailure, boolean retryable) {
         this.data = data;
         this.errorMessage = errorMessage;
+        this.transientFailure = transientFailure;
+        this.retryable = retryable;
     }
 
     static VahanSearchResult ok(JsonNode root) {
-        return new VahanSearchResult(Optional.of(root), null);
+        return new VahanSearchResult(Optional.of(root), null, false, false);
     }
 
     static VahanSearchResult error(String message) {
-        return new VahanSearchResult(Optional.empty(), message);
+        return new VahanSearchResult(Optional.empty(), message, false, false);
+    }
+
+    /** An error caused by Vahan being unreachable or overloaded (network failure, 429, 5xx), not by the request. */
+    static VahanSearchResult unavailable(String message) {
+        return new VahanSearchResult(Optional.empty(), message, true, false);
+    }
+
+    /** A transient error worth another attempt: timeout, refused or reset connection, 502/503/504. */
+    static VahanSearchResult retryable(String message) {
+        return new VahanSearchResult(Optional.empty(), message, true, true);
     }
 
     Optional<JsonNode> getData() { return data; }
     String getErrorMessage() { return errorMessage; }
+    boolean isTransientFailure() { return transientFailure; }
+    boolean isRetryable() { return retryable; }
 }
 
 @Service
-public class VahanApiClient {
+public class VahanApiClient implements VehicleDataProvider {
 
     private static final Logger log = LoggerFactory.getLogger(VahanApiClient.class);
 
@@ -54,10 +89,117 @@ public class VahanApiClient {
     @Value("${vahan.api.max-age:999}")
     private String maxAge;
 
+    /*
+     * Hedging: if a call has not returned after the configured latency percentile of recent calls,
+     * one backup request is sent and the first usable response wins. Each call earns max-fraction of a
+     * hedge and each hedge spends one, so hedges stay at most that fraction of traffic.
+     */
+    @Value("${vahan.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${vahan.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${vahan.hedge.max-fraction:0.05}")
+    private double hedgeMaxFraction;
+
+    @Value("${vahan.hedge.min-delay-ms:100}")
+    private long hedgeMinDelayMs;
+
+    /** No hedging until this many latencies have been observed. */
+    @Value("${vahan.hedge.min-samples:50}")
+    private int hedgeMinSamples;
+
+    @Value("${vahan.hedge.window-size:1000}")
+    private int hedgeWindowSize;
+
+    /*
+     * Adaptive concurrency limit (AIMD) on in-flight Vahan calls: grows while calls are fast and succeed,
+     * shrinks when they are slow (over latency-threshold-ms) or fail. Excess calls queue briefly, then are rejected.
+     */
+    @Value("${vahan.limiter.enabled:false}")
+    private boolean limiterEnabled;
+
+    @Value("${vahan.limiter.initial-limit:20}")
+    private int limiterInitialLimit;
+
+    @Value("${vahan.limiter.min-limit:2}")
+    private int limiterMinLimit;
+
+    @Value("${vahan.limiter.max-limit:200}")
+    private int limiterMaxLimit;
+
+    @Value("${vahan.limiter.latency-threshold-ms:2000}")
+    private long limiterLatencyThresholdMs;
+
+    @Value("${vahan.limiter.backoff-ratio:0.9}")
+    private double limiterBackoffRatio;
+
+    @Value("${vahan.limiter.max-queue:50}")
+    private int limiterMaxQueue;
+
+    @Value("${vahan.limiter.max-wait-ms:1000}")
+    private long limiterMaxWaitMs;
+
+    /*
+     * Retries: timeouts, refused or reset connections and 502/503/504 are retried with exponential backoff
+     * and full jitter, within max-attempts and the overall deadline: a retry, including its wait for a
+     * quota token, is only started if a whole attempt (connect + read timeout) still fits before it.
+     * Every attempt takes its own quota token.
+     */
+    @Value("${vahan.retry.enabled:true}")
+    private boolean retryEnabled;
+
+    @Value("${vahan.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${vahan.retry.base-delay-ms:200}")
+    private long retryBaseDelayMs;
+
+    @Value("${vahan.retry.max-delay-ms:2000}")
+    private long retryMaxDelayMs;
+
+    @Value("${vahan.retry.deadline-ms:25000}")
+    private long retryDeadlineMs;
+
+    /** Longest one attempt can take; a retry is only made if it still fits before the deadline. */
+    @Value("${vahan.api.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${vahan.api.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /** Error for a call refused locally because too many are already waiting (answered with a 503). */
+    static final String BUSY = "Vahan is busy right now. Please try again in a moment.";
+
+    /** Caps hedge credits banked while traffic is low, so a quiet period cannot release a burst of hedges. */
+    private static final double MAX_BANKED_HEDGES = 10;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry;
+    private final VahanQuotaScheduler quotaScheduler;
+
+    private LatencyWindow latencies;
+    private ExecutorService hedgeExecutor;
+    private double hedgeCredits;
+    private Counter hedgedCalls;
+    private Counter hedgesSent;
+    private Counter hedgeWins;
+    private Counter hedgesOverBudget;
+    private AdaptiveConcurrencyLimiter limiter;
+    private Counter limiterRejected;
+    private RetryPolicy retryPolicy;
+    private Counter retries;
+    private Counter retriesRecovered;
+    private Counter retriesExhausted;
 
-    public VahanApiClient(RestTemplate restTemplate) {
+    public VahanApiClient(RestTemplate restTemplate, MeterRegistry meterRegistry, VahanQuotaScheduler quotaScheduler) {
         this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
+        this.quotaScheduler = quotaScheduler;
     }
 
     @PostConstruct
@@ -68,9 +210,59 @@ public class VahanApiClient {
         } else {
             log.info("Vahan API key is set (length={}). Vehicle search will call the Vahan API.", key.length());
         }
+        if (hedgeEnabled) {
+            latencies = new LatencyWindow(hedgeWindowSize);
+            hedgeExecutor = Executors.newCachedThreadPool(AsyncConfig.ioThreadFactory("vahan-hedge-", virtualThreads));
+            hedgedCalls = meterRegistry.counter("vahan.hedge.calls");
+            hedgesSent = meterRegistry.counter("vahan.hedge.sent");
+            hedgeWins = meterRegistry.counter("vahan.hedge.wins");
+            hedgesOverBudget = meterRegistry.counter("vahan.hedge.over.budget");
+            Gauge.builder("vahan.hedge.delay", this, c -> c.hedgeDelayMs())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            log.info("Vahan request hedging enabled: p{} of recent latencies, at most {}% of calls",
+                    Math.round(hedgePercentile * 100), hedgeMaxFraction * 100);
+        }
+        if (limiterEnabled) {
+            limiter = new AdaptiveConcurrencyLimiter(limiterInitialLimit, limiterMinLimit, limiterMaxLimit,
+                    limiterLatencyThresholdMs, limiterBackoffRatio, limiterMaxQueue, limiterMaxWaitMs);
+            limiterRejected = meterRegistry.counter("vahan.limiter.rejected");
+            Gauge.builder("vahan.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+            Gauge.builder("vahan.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+            Gauge.builder("vahan.limiter.queued", limiter, AdaptiveConcurrencyLimiter::getQueued).register(meterRegistry);
+            log.info("Vahan adaptive concurrency limit enabled: initial {}, range {}-{}",
+                    limiterInitialLimit, limiterMinLimit, limiterMaxLimit);
+        }
+        if (retryEnabled) {
+            retryPolicy = new RetryPolicy(retryMaxAttempts, retryBaseDelayMs, retryMaxDelayMs, retryDeadlineMs,
+                    connectTimeoutMs + readTimeoutMs);
+            retries = meterRegistry.counter("vahan.retry.retries");
+            retriesRecovered = meterRegistry.counter("vahan.retry.recovered");
+            retriesExhausted = meterRegistry.counter("vahan.retry.exhausted");
+        }
     }
 
-    private String getApiKey() {
+    @PreDestroy
+    private void shutdown() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Opens a connection (TLS handshake included) to the Vahan host with a HEAD on its root, so the
+     * first real lookup reuses it. Not a lookup: it does not touch the quota and any answer will do.
+     */
+    void preconnect() {
+        URI uri = URI.create(baseUrl);
+        try {
+            restTemplate.headForHeaders(uri.getScheme() + "://" + uri.getRawAuthority() + "/");
+        } catch (RestClientException e) {
+            log.debug("Vahan pre-connect: {}", e.getMessage());
+        }
+    }
+
+    String getApiKey() {
         return apiKeyRaw != null ? apiKeyRaw.trim() : "";
     }
 
@@ -79,46 +271,317 @@ public class VahanApiClient {
         return !getApiKey().isBlank();
     }
 
+    @Override
+    public String name() {
+        return "vahan";
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return isApiKeyConfigured();
+    }
+
+    @Override
+    public VehicleDataResult search(String vehicleNumber, String callerId, Priority priority) {
+        return search(vehicleNumber, callerId, priority, null);
+    }
+
+    /** Sends maxAgeDays as Vahan's maxAge instead of vahan.api.max-age when it is not null. */
+    @Override
+    public VehicleDataResult search(String vehicleNumber, String callerId, Priority priority, Integer maxAgeDays) {
+        return toResult(lookup(vehicleNumber, callerId, lane(priority), maxAgeDays));
+    }
+
+    /** The global partner quota lane for a priority. */
+    private static VahanQuotaScheduler.Lane lane(Priority priority) {
+        return switch (priority) {
+            case HIGHEST -> VahanQuotaScheduler.Lane.SUPER_ADMIN;
+            case HIGH -> VahanQuotaScheduler.Lane.ADMIN;
+            case NORMAL -> VahanQuotaScheduler.Lane.USER;
+            case BACKGROUND -> VahanQuotaScheduler.Lane.BACKGROUND;
+        };
+    }
+
     /**
      * Calls Vahan API and returns result with data or a user-facing error message.
+     * Each attempt first waits for a slot in the global partner quota, in the caller's lane;
+     * retryable failures are retried per {@link RetryPolicy}.
      */
-    public VahanSearchResult search(String vehicleNumber) {
+    private VahanSearchResult lookup(String vehicleNumber, String callerId, VahanQuotaScheduler.Lane lane,
+                                     Integer maxAgeDays) {
+        String requestMaxAge = maxAgeDays != null ? maxAgeDays.toString() : maxAge;
         if (!isApiKeyConfigured()) {
-            log.warn("VAHAN_API_KEY not set or empty (check env and restart backend)");
-            return VahanSearchResult.error("Vahan API key is not set. Set VAHAN_API_KEY in the same shell before starting the backend, then restart. See RUN.md.");
+            return missingKey();
+        }
+        long deadline = retryDeadline();
+        for (int attempt = 1; ; attempt++) {
+            VahanQuotaScheduler.Outcome quota = requestQuota(callerId, lane, attempt, deadline).join();
+            if (quota != VahanQuotaScheduler.Outcome.GRANTED) {
+                return quotaRejected(quota);
+            }
+            VahanSearchResult result = limitedSearch(vehicleNumber, requestMaxAge);
+            long delayMs = nextRetryDelayMs(vehicleNumber, result, attempt, deadline);
+            if (delayMs < 0) {
+                return result;
+            }
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Quota token for an attempt. A retry waits no longer than the deadline allows after reserving time
+     * for the call itself; the first attempt waits up to the scheduler's max-wait as usual.
+     */
+    CompletableFuture<VahanQuotaScheduler.Outcome> requestQuota(String callerId, VahanQuotaScheduler.Lane lane,
+                                                                int attempt, long deadline) {
+        if (attempt == 1 || retryPolicy == null) {
+            return quotaScheduler.request(callerId, lane);
+        }
+        return quotaScheduler.request(callerId, lane, retryPolicy.maxQuotaWaitMs(deadline));
+    }
+
+    /** Deadline (System.nanoTime) for the retries of a search starting now. */
+    long retryDeadline() {
+        return retryPolicy != null ? retryPolicy.deadline(System.nanoTime()) : 0;
+    }
+
+    /**
+     * Backoff before retrying the failed attempt, or -1 to return the result as is. Also records
+     * the retry metrics, so both clients report the same numbers.
+     */
+    long nextRetryDelayMs(String vehicleNumber, VahanSearchResult result, int attemptsMade, long deadline) {
+        if (retryPolicy == null) return -1;
+        long delayMs = retryPolicy.nextDelayMs(result, attemptsMade, deadline);
+        if (delayMs >= 0) {
+            retries.increment();
+            log.info("Vahan call for {} failed (attempt {}): {}. Retrying in {} ms",
+                    vehicleNumber, attemptsMade, result.getErrorMessage(), delayMs);
+        } else if (result.isRetryable()) {
+            retriesExhausted.increment();
+        } else if (attemptsMade > 1 && result.getErrorMessage() == null) {
+            retriesRecovered.increment();
+        }
+        return delayMs;
+    }
+
+    private VahanSearchResult limitedSearch(String vehicleNumber, String maxAge) {
+        if (limiter == null) {
+            return hedgeEnabled ? hedgedSearch(vehicleNumber, maxAge) : call(vehicleNumber, maxAge);
         }
-        String url = baseUrl + "?apiTag=RC_PRO&vehicle_num=" + vehicleNumber.trim() + "&maxAge=" + maxAge;
+        try {
+            if (!limiter.tryAcquire()) {
+                limiterRejected.increment();
+                // The quota token was taken for a call that is not made
+                quotaScheduler.refund();
+                return busy();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            quotaScheduler.refund();
+            return busy();
+        }
+        long start = System.nanoTime();
+        VahanSearchResult result = null;
+        try {
+            result = hedgeEnabled ? hedgedSearch(vehicleNumber, maxAge) : call(vehicleNumber, maxAge);
+            return result;
+        } finally {
+            limiter.release(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    result == null || result.isTransientFailure());
+        }
+    }
+
+    private static VahanSearchResult busy() {
+        return VahanSearchResult.unavailable(BUSY);
+    }
+
+    static VahanSearchResult quotaRejected(VahanQuotaScheduler.Outcome outcome) {
+        if (outcome == VahanQuotaScheduler.Outcome.DAILY_QUOTA_EXHAUSTED) {
+            return VahanSearchResult.error("Daily Vahan call limit reached for all users. Cached results are still available; try new numbers tomorrow.");
+        }
+        return busy();
+    }
+
+    private VahanSearchResult call(String vehicleNumber, String maxAge) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("x-api-key", getApiKey());
         try {
             ResponseEntity<String> response = restTemplate.exchange(
-                    url,
+                    searchUrl(vehicleNumber, maxAge),
                     HttpMethod.GET,
                     new HttpEntity<>(headers),
                     String.class
             );
-            if (response.getBody() == null) {
-                return VahanSearchResult.error("Vahan API returned an empty response.");
+            return parseResponse(response.getBody());
+        } catch (HttpStatusCodeException e) {
+            return httpError(e.getStatusCode().value(), vehicleNumber, e.getResponseBodyAsString());
+        } catch (Exception e) {
+            return callFailed(vehicleNumber, e);
+        }
+    }
+
+    private record Attempt(VahanSearchResult result, boolean hedge) { }
+
+    private VahanSearchResult hedgedSearch(String vehicleNumber, String maxAge) {
+        hedgedCalls.increment();
+        earnHedgeCredit();
+        long delayMs = hedgeDelayMs();
+        CompletionService<Attempt> completion = new ExecutorCompletionService<>(hedgeExecutor);
+        Future<Attempt> primary = completion.submit(() -> timedCall(vehicleNumber, maxAge, false));
+        Future<Attempt> backup = null;
+        try {
+            Future<Attempt> done = delayMs >= 0 ? completion.poll(delayMs, TimeUnit.MILLISECONDS) : null;
+            if (done == null && delayMs >= 0) {
+                if (tryAcquireHedge()) {
+                    hedgesSent.increment();
+                    log.debug("Vahan call for {} slower than {} ms, sending hedge", vehicleNumber, delayMs);
+                    backup = completion.submit(() -> timedCall(vehicleNumber, maxAge, true));
+                } else {
+                    hedgesOverBudget.increment();
+                }
             }
-            JsonNode root = objectMapper.readTree(response.getBody());
-            if (root.has("error") && !root.get("error").isNull()) {
-                return VahanSearchResult.error("Vahan API returned an error. Check your API key and registration number.");
+            Attempt first = (done != null ? done : completion.take()).get();
+            // An error from one attempt is only used if the other one fails too
+            if (first.result().getErrorMessage() != null && backup != null) {
+                Attempt second = completion.take().get();
+                if (second.result().getErrorMessage() == null) {
+                    first = second;
+                }
             }
-            return VahanSearchResult.ok(root);
-        } catch (HttpStatusCodeException e) {
-            int code = e.getStatusCode().value();
-            String body = e.getResponseBodyAsString();
-            log.warn("Vahan API HTTP {} for vehicle {}: {}", code, vehicleNumber, body);
-            if (code == 401) {
-                return VahanSearchResult.error("Invalid Vahan API key (401). Check that VAHAN_API_KEY is correct and restart the backend.");
+            if (first.hedge()) {
+                hedgeWins.increment();
             }
-            if (code == 403) {
-                return VahanSearchResult.error("Vahan API access denied (403). Check your API key and permissions.");
+            return first.result();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return callFailed(vehicleNumber, e);
+        } catch (ExecutionException e) {
+            return callFailed(vehicleNumber, e.getCause());
+        } finally {
+            primary.cancel(true);
+            if (backup != null) {
+                backup.cancel(true);
             }
-            return VahanSearchResult.error("Vahan API error (" + code + "). Try again or check RUN.md.");
-        } catch (Exception e) {
-            log.error("Vahan API call failed for vehicle {}", vehicleNumber, e);
-            return VahanSearchResult.error("Could not reach Vahan API: " + (e.getMessage() != null ? e.getMessage() : "network or server error."));
         }
     }
+
+    private Attempt timedCall(String vehicleNumber, String maxAge, boolean hedge) {
+        long start = System.nanoTime();
+        VahanSearchResult result = call(vehicleNumber, maxAge);
+        latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new Attempt(result, hedge);
+    }
+
+    /** Current hedging delay, or -1 while too few latencies have been observed to hedge. */
+    private long hedgeDelayMs() {
+        if (latencies.size() < hedgeMinSamples) return -1;
+        return Math.max(hedgeMinDelayMs, latencies.percentile(hedgePercentile));
+    }
+
+    private synchronized void earnHedgeCredit() {
+        hedgeCredits = Math.min(MAX_BANKED_HEDGES, hedgeCredits + hedgeMaxFraction);
+    }
+
+    /**
+     * A hedge is a real partner call: it needs hedge budget and a spare quota token. The credit is only
+     * spent once the token is taken, so a busy quota does not drain the budget.
+     */
+    private synchronized boolean tryAcquireHedge() {
+        if (hedgeCredits < 1 || !quotaScheduler.tryAcquireSpare()) return false;
+        hedgeCredits -= 1;
+        return true;
+    }
+
+    // Request building and response mapping below are shared with ReactiveVahanApiClient.
+
+    String searchUrl(String vehicleNumber) {
+        return searchUrl(vehicleNumber, maxAge);
+    }
+
+    private String searchUrl(String vehicleNumber, String maxAge) {
+        return baseUrl + "?apiTag=RC_PRO&vehicle_num=" + vehicleNumber.trim() + "&maxAge=" + maxAge;
+    }
+
+    VahanSearchResult missingKey() {
+        log.warn("VAHAN_API_KEY not set or empty (check env and restart backend)");
+        return VahanSearchResult.error("Vahan API key is not set. Set VAHAN_API_KEY in the same shell before starting the backend, then restart. See RUN.md.");
+    }
+
+    /** The provider-neutral form of a Vahan result: the RC record of an RC_PRO response, or the error. */
+    VehicleDataResult toResult(VahanSearchResult result) {
+        if (result.getErrorMessage() != null) {
+            return result.isTransientFailure()
+                    ? VehicleDataResult.unavailable(result.getErrorMessage())
+                    : VehicleDataResult.error(result.getErrorMessage());
+        }
+        return VehicleDataResult.ok(rcData(result.getData().get()));
+    }
+
+    /**
+     * Extracts the vehicle data map from a Vahan response.
+     * The API returns data at root.data, not root.response.data, but both are accepted.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> rcData(JsonNode root) {
+        JsonNode dataNode = root.path("data");
+        if (dataNode.isMissingNode() || !dataNode.isObject()) {
+            dataNode = root.path("response").path("data");
+        }
+        return dataNode.isObject()
+                ? objectMapper.convertValue(dataNode, Map.class)
+                : new HashMap<>();
+    }
+
+    VahanSearchResult parseResponse(String body) throws IOException {
+        if (body == null) {
+            return VahanSearchResult.error("Vahan API returned an empty response.");
+        }
+        JsonNode root = objectMapper.readTree(body);
+        if (root.has("error") && !root.get("error").isNull()) {
+            return VahanSearchResult.error("Vahan API returned an error. Check your API key and registration number.");
+        }
+        return VahanSearchResult.ok(root);
+    }
+
+    VahanSearchResult httpError(int code, String vehicleNumber, String body) {
+        log.warn("Vahan API HTTP {} for vehicle {}: {}", code, vehicleNumber, body);
+        if (code == 401) {
+            return VahanSearchResult.error("Invalid Vahan API key (401). Check that VAHAN_API_KEY is correct and restart the backend.");
+        }
+        if (code == 403) {
+            return VahanSearchResult.error("Vahan API access denied (403). Check your API key and permissions.");
+        }
+        String message = "Vahan API error (" + code + "). Try again or check RUN.md.";
+        if (code == 502 || code == 503 || code == 504) {
+            return VahanSearchResult.retryable(message);
+        }
+        if (code == 429 || code >= 500) {
+            return VahanSearchResult.unavailable(message);
+        }
+        return VahanSearchResult.error(message);
+    }
+
+    VahanSearchResult callFailed(String vehicleNumber, Throwable e) {
+        return callFailed(vehicleNumber, e, isNetworkFailure(e));
+    }
+
+    VahanSearchResult callFailed(String vehicleNumber, Throwable e, boolean retryable) {
+        log.error("Vahan API call failed for vehicle {}", vehicleNumber, e);
+        String message = "Could not reach Vahan API: " + (e.getMessage() != null ? e.getMessage() : "network or server error.");
+        return retryable ? VahanSearchResult.retryable(message) : VahanSearchResult.unavailable(message);
+    }
+
+    /** True for I/O failures on the connection (timeouts, refused or reset connections), not for unparseable responses. */
+    private static boolean isNetworkFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof JsonProcessingException) return false;
+            if (t instanceof IOException) return true;
+        }
+        return false;
+    }
 }
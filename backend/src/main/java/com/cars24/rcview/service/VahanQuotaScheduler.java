@@ -0,0 +1,354 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.AppUser;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Global scheduler for the Vahan contract quota (calls per second and per day, shared by all users).
+ * <p>
+ * Callers queue in a lane by role. When a token is available the dispatcher picks a lane by smooth
+ * weighted round-robin, so higher lanes get a larger share without starving lower ones, and within a lane
+ * it rotates between callers, so one user with many pending lookups cannot crowd out the others.
+ * Requests not granted within max-wait are dropped; once the daily quota is used up they are rejected at once.
+ * <p>
+ * Limits are per instance: with several instances, divide the contract quota between them.
+ */
+@Service
+public class VahanQuotaScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(VahanQuotaScheduler.class);
+
+    /** Longest the dispatcher sleeps before re-checking the queue while waiting for a token. */
+    private static final long MAX_DISPATCH_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    public enum Lane {
+        SUPER_ADMIN,
+        ADMIN,
+        USER,
+        /** Work nobody is waiting on, such as cache warming. */
+        BACKGROUND;
+
+        public static Lane of(AppUser.Role role) {
+            if (role == null) return USER;
+            return switch (role) {
+                case SUPER_ADMIN -> SUPER_ADMIN;
+                case ADMIN -> ADMIN;
+                case USER -> USER;
+            };
+        }
+    }
+
+    public enum Outcome {
+        GRANTED,
+        TIMED_OUT,
+        DAILY_QUOTA_EXHAUSTED
+    }
+
+    @Value("${vahan.quota.enabled:false}")
+    private boolean enabled;
+
+    @Value("${vahan.quota.per-second:10}")
+    private int perSecond;
+
+    @Value("${vahan.quota.per-day:10000}")
+    private int perDay;
+
+    @Value("${vahan.quota.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    @Value("${vahan.quota.weights.super-admin:8}")
+    private int superAdminWeight;
+
+    @Value("${vahan.quota.weights.admin:4}")
+    private int adminWeight;
+
+    @Value("${vahan.quota.weights.user:2}")
+    private int userWeight;
+
+    @Value("${vahan.quota.weights.background:1}")
+    private int backgroundWeight;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition arrived = lock.newCondition();
+    private final Map<Lane, LaneQueue> lanes = new EnumMap<>(Lane.class);
+    private int totalQueued;
+
+    private Bucket perSecondBucket;
+    private Bucket dailyBucket;
+    private Thread dispatcher;
+
+    public VahanQuotaScheduler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) return;
+        int rate = Math.max(1, perSecond);
+        perSecondBucket = Bucket.builder()
+                .addLimit(Bandwidth.classic(rate, Refill.greedy(rate, Duration.ofSeconds(1))))
+                .build();
+        dailyBucket = Bucket.builder()
+                .addLimit(Bandwidth.classic(Math.max(1, perDay), Refill.intervally(Math.max(1, perDay), Duration.ofDays(1))))
+                .build();
+        Map<Lane, Integer> weights = Map.of(Lane.SUPER_ADMIN, superAdminWeight, Lane.ADMIN, adminWeight,
+                Lane.USER, userWeight, Lane.BACKGROUND, backgroundWeight);
+        for (Lane lane : Lane.values()) {
+            LaneQueue queue = new LaneQueue(lane, Math.max(1, weights.get(lane)), meterRegistry);
+            lanes.put(lane, queue);
+            Gauge.builder("vahan.quota.queued", queue, q -> q.size).tag("lane", lane.name()).register(meterRegistry);
+        }
+        Gauge.builder("vahan.quota.daily.remaining", dailyBucket, Bucket::getAvailableTokens).register(meterRegistry);
+        dispatcher = Thread.ofPlatform().name("vahan-quota-dispatcher").daemon().start(this::dispatchLoop);
+        log.info("Vahan quota scheduler enabled: {}/s, {}/day", perSecond, perDay);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+    }
+
+    /**
+     * Requests one Vahan call for the caller. The future completes with GRANTED when the call may go
+     * ahead, TIMED_OUT after max-wait, or DAILY_QUOTA_EXHAUSTED. Completes immediately when disabled.
+     */
+    public CompletableFuture<Outcome> request(String callerId, Lane lane) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(Outcome.GRANTED);
+        }
+        LaneQueue queue = lanes.get(lane);
+        lock.lock();
+        try {
+            if (dailyBucket.getAvailableTokens() <= 0) {
+                queue.rejected(Outcome.DAILY_QUOTA_EXHAUSTED);
+                return CompletableFuture.completedFuture(Outcome.DAILY_QUOTA_EXHAUSTED);
+            }
+            // Nobody ahead and a token free: no need to go through the dispatcher
+            if (totalQueued == 0 && tryConsume()) {
+                queue.granted(0);
+                return CompletableFuture.completedFuture(Outcome.GRANTED);
+            }
+            Waiter waiter = new Waiter(System.nanoTime());
+            waiter.future.completeOnTimeout(Outcome.TIMED_OUT, maxWaitMs, TimeUnit.MILLISECONDS)
+                    .thenAccept(outcome -> {
+                        if (outcome == Outcome.TIMED_OUT) queue.rejected(outcome);
+                    });
+            queue.add(callerId != null ? callerId : "", waiter);
+            totalQueued++;
+            arrived.signal();
+            return waiter.future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Blocking form of {@link #request}. */
+    public Outcome acquire(String callerId, Lane lane) {
+        return request(callerId, lane).join();
+    }
+
+    /** As {@link #request}, but times out after maxWaitMs if that is shorter than max-wait. */
+    public CompletableFuture<Outcome> request(String callerId, Lane lane, long maxWaitMs) {
+        // The dispatcher skips a waiter completed here, exactly as on the max-wait timeout
+        return request(callerId, lane).completeOnTimeout(Outcome.TIMED_OUT, maxWaitMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Takes a token only if one is free and nobody is queued; for optional extra calls such as hedges. */
+    public boolean tryAcquireSpare() {
+        if (!enabled) return true;
+        lock.lock();
+        try {
+            return totalQueued == 0 && tryConsume();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a token from {@link #acquire} or {@link #tryAcquireSpare} whose call was not made after
+     * all, e.g. because the concurrency limiter rejected it.
+     */
+    public void refund() {
+        if (!enabled) return;
+        lock.lock();
+        try {
+            perSecondBucket.addTokens(1);
+            dailyBucket.addTokens(1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryConsume() {
+        if (!perSecondBucket.tryConsume(1)) return false;
+        if (!dailyBucket.tryConsume(1)) {
+            perSecondBucket.addTokens(1);
+            return false;
+        }
+        return true;
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                lock.lock();
+                try {
+                    while (totalQueued == 0) {
+                        arrived.await();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                ConsumptionProbe probe = perSecondBucket.tryConsumeAndReturnRemaining(1);
+                if (!probe.isConsumed()) {
+                    TimeUnit.NANOSECONDS.sleep(Math.min(probe.getNanosToWaitForRefill(), MAX_DISPATCH_SLEEP_NANOS));
+                    continue;
+                }
+                lock.lock();
+                try {
+                    if (!dailyBucket.tryConsume(1)) {
+                        perSecondBucket.addTokens(1);
+                        rejectAllQueued(Outcome.DAILY_QUOTA_EXHAUSTED);
+                    } else if (!grantNext()) {
+                        perSecondBucket.addTokens(1);
+                        dailyBucket.addTokens(1);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Grants the token to the next live waiter by lane weight and caller rotation. Must hold the lock. */
+    private boolean grantNext() {
+        while (totalQueued > 0) {
+            LaneQueue lane = pickLane();
+            Waiter waiter = lane.poll();
+            totalQueued--;
+            // Waiters that already timed out are dropped here
+            if (waiter.future.complete(Outcome.GRANTED)) {
+                lane.granted(System.nanoTime() - waiter.enqueuedNanos);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Smooth weighted round-robin over the non-empty lanes. Must hold the lock. */
+    private LaneQueue pickLane() {
+        LaneQueue best = null;
+        int totalWeight = 0;
+        for (LaneQueue lane : lanes.values()) {
+            if (lane.size == 0) continue;
+            lane.current += lane.weight;
+            totalWeight += lane.weight;
+            if (best == null || lane.current > best.current) {
+                best = lane;
+            }
+        }
+        best.current -= totalWeight;
+        return best;
+    }
+
+    private void rejectAllQueued(Outcome outcome) {
+        for (LaneQueue lane : lanes.values()) {
+            while (lane.size > 0) {
+                Waiter waiter = lane.poll();
+                totalQueued--;
+                if (waiter.future.complete(outcome)) {
+                    lane.rejected(outcome);
+                }
+            }
+        }
+    }
+
+    private static final class Waiter {
+        final long enqueuedNanos;
+        final CompletableFuture<Outcome> future = new CompletableFuture<>();
+
+        Waiter(long enqueuedNanos) {
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /** One lane: per-caller FIFO queues served in rotation. Guarded by the scheduler lock. */
+    private static final class LaneQueue {
+        final Lane lane;
+        final int weight;
+        final MeterRegistry meterRegistry;
+        final Timer waitTimer;
+        final Map<String, ArrayDeque<Waiter>> byCaller = new HashMap<>();
+        final ArrayDeque<String> rotation = new ArrayDeque<>();
+        int current;
+        volatile int size;
+
+        LaneQueue(Lane lane, int weight, MeterRegistry meterRegistry) {
+            this.lane = lane;
+            this.weight = weight;
+            this.meterRegistry = meterRegistry;
+            this.waitTimer = Timer.builder("vahan.quota.wait").tag("lane", lane.name()).register(meterRegistry);
+        }
+
+        void add(String callerId, Waiter waiter) {
+            ArrayDeque<Waiter> queue = byCaller.get(callerId);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                byCaller.put(callerId, queue);
+                rotation.addLast(callerId);
+            }
+            queue.addLast(waiter);
+            size++;
+        }
+
+        Waiter poll() {
+            String callerId = rotation.pollFirst();
+            ArrayDeque<Waiter> queue = byCaller.get(callerId);
+            Waiter waiter = queue.pollFirst();
+            if (queue.isEmpty()) {
+                byCaller.remove(callerId);
+            } else {
+                rotation.addLast(callerId);
+            }
+            size--;
+            return waiter;
+        }
+
+        void granted(long waitNanos) {
+            waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("vahan.quota.granted", "lane", lane.name()).increment();
+        }
+
+        void rejected(Outcome outcome) {
+            meterRegistry.counter("vahan.quota.rejected", "lane", lane.name(), "reason", outcome.name()).increment();
+        }
+    }
+}
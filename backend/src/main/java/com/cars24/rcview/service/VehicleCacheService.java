@@ -0,0 +1,249 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.config.MongoConfig;
+import com.cars24.rcview.entity.VehicleCache;
+import com.cars24.rcview.repository.VehicleCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single read/write path for the vehicle cache. In dev mode entries live in memory only;
+ * otherwise they are stored in the vehicle_cache collection, one document per registration number.
+ * <p>
+ * Recently read or written entries are also kept in a bounded in-memory tier. While MongoDB is
+ * unavailable lookups are served from that tier, and writes go to it plus a replay queue that is
+ * flushed once MongoDB is back.
+ * <p>
+ * Reads go through {@link MongoConfig#CACHE_TEMPLATE}, which may read from a secondary; when the in-memory
+ * tier holds a newer entry (e.g. one this instance just wrote and the secondary has not replicated yet) that
+ * one is returned. Writes go through the repository on the primary.
+ */
+@Service
+public class VehicleCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleCacheService.class);
+
+    private final VehicleCacheRepository cacheRepository;
+    private final MongoTemplate cacheTemplate;
+    private final MongoHealthGuard mongoHealthGuard;
+    private final VehicleHistoryService historyService;
+    private final VehicleIdentifierIndex identifierIndex;
+    private final Counter droppedWrites;
+
+    @Value("${app.dev-mode:false}")
+    private boolean devMode;
+
+    @Value("${app.degraded.max-pending-writes:50000}")
+    private int maxPendingWrites;
+
+    private final Map<String, VehicleCache> devModeCache = new ConcurrentHashMap<>();
+    private final Map<String, VehicleCache> recent;
+    /** Writes made while MongoDB was unavailable, latest per reg-no. */
+    private final Map<String, VehicleCache> pendingWrites = new ConcurrentHashMap<>();
+
+    public VehicleCacheService(VehicleCacheRepository cacheRepository,
+                               @Qualifier(MongoConfig.CACHE_TEMPLATE) MongoTemplate cacheTemplate,
+                               MongoHealthGuard mongoHealthGuard, VehicleHistoryService historyService,
+                               VehicleIdentifierIndex identifierIndex, MeterRegistry meterRegistry,
+                               @Value("${app.degraded.cache-size:10000}") int recentCapacity) {
+        this.cacheRepository = cacheRepository;
+        this.cacheTemplate = cacheTemplate;
+        this.mongoHealthGuard = mongoHealthGuard;
+        this.historyService = historyService;
+        this.identifierIndex = identifierIndex;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VehicleCache> eldest) {
+                return size() > recentCapacity;
+            }
+        });
+        this.droppedWrites = meterRegistry.counter("mongo.degraded.dropped", "type", "cache");
+        Gauge.builder("mongo.degraded.pending", pendingWrites, Map::size).tag("type", "cache").register(meterRegistry);
+        mongoHealthGuard.onRecovery(this::replayPendingWrites);
+    }
+
+    /** Returns the cache entry for the normalized reg-no if it has not expired at {@code now}. */
+    public Optional<VehicleCache> findValid(String normalized, Instant now) {
+        if (devMode) {
+            VehicleCache entry = devModeCache.get(normalized);
+            return entry != null && entry.getExpiresAt().isAfter(now) ? Optional.of(entry) : Optional.empty();
+        }
+        return mongoHealthGuard.call(() -> {
+            VehicleCache entry = newer(cacheTemplate.findOne(validQuery(normalized, now), VehicleCache.class),
+                    normalized, now);
+            if (entry != null) {
+                recent.put(normalized, entry);
+            }
+            return Optional.ofNullable(entry);
+        }, () -> findRecent(normalized, now));
+    }
+
+    /**
+     * Like {@link #findValid(String, Instant)}, but MongoDB returns only the requested keys of the
+     * response data. Such partial entries are not kept in the in-memory tier. Without MongoDB the
+     * in-memory entry is returned whole; callers trim it with {@link ResponseFields#apply}.
+     */
+    public Optional<VehicleCache> findValid(String normalized, Instant now, ResponseFields fields) {
+        if (devMode || fields.isAll()) {
+            return findValid(normalized, now);
+        }
+        return mongoHealthGuard.call(() -> {
+            Query query = validQuery(normalized, now);
+            query.fields().include("regNoNormalized", "cachedAt", "expiresAt");
+            fields.names().forEach(name -> query.fields().include("responseData." + name));
+            return Optional.ofNullable(newer(cacheTemplate.findOne(query, VehicleCache.class), normalized, now));
+        }, () -> findRecent(normalized, now));
+    }
+
+    private static Query validQuery(String normalized, Instant now) {
+        return Query.query(Criteria.where("regNoNormalized").is(normalized).and("expiresAt").gt(now))
+                .with(Sort.by(Sort.Direction.DESC, "cachedAt"))
+                .limit(1);
+    }
+
+    /** The entry read from MongoDB, or the in-memory one if that was cached later (or nothing was read). */
+    private VehicleCache newer(VehicleCache read, String normalized, Instant now) {
+        VehicleCache local = findRecent(normalized, now).orElse(null);
+        if (local == null) return read;
+        if (read == null || read.getCachedAt() == null) return local;
+        // MongoDB stores milliseconds: the persisted copy of an entry written here is not older than its original
+        return local.getCachedAt() != null && local.getCachedAt().toEpochMilli() > read.getCachedAt().toEpochMilli()
+                ? local : read;
+    }
+
+    private Optional<VehicleCache> findRecent(String normalized, Instant now) {
+        VehicleCache entry = recent.get(normalized);
+        if (entry == null) {
+            entry = pendingWrites.get(normalized);
+        }
+        return entry != null && entry.getExpiresAt().isAfter(now) ? Optional.of(entry) : Optional.empty();
+    }
+
+    /** Multi-get: valid entries for the given normalized reg-nos, keyed by reg-no. Missing keys are cache misses. */
+    public Map<String, VehicleCache> findValidAll(Collection<String> normalized, Instant now) {
+        Map<String, VehicleCache> result = new HashMap<>();
+        if (devMode) {
+            for (String regNo : normalized) {
+                findValid(regNo, now).ifPresent(e -> result.put(regNo, e));
+            }
+            return result;
+        }
+        return mongoHealthGuard.call(() -> {
+            Query query = Query.query(Criteria.where("regNoNormalized").in(normalized).and("expiresAt").gt(now));
+            for (VehicleCache entry : cacheTemplate.find(query, VehicleCache.class)) {
+                result.merge(entry.getRegNoNormalized(), entry,
+                        (a, b) -> a.getCachedAt().isAfter(b.getCachedAt()) ? a : b);
+            }
+            for (String regNo : normalized) {
+                VehicleCache entry = newer(result.get(regNo), regNo, now);
+                if (entry != null) {
+                    result.put(regNo, entry);
+                }
+            }
+            recent.putAll(result);
+            return result;
+        }, () -> {
+            for (String regNo : normalized) {
+                findRecent(regNo, now).ifPresent(e -> result.put(regNo, e));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Loads the most recently cached valid entries into the in-memory tier (used when MongoDB is down)
+     * and returns them, newest first. Used by the startup warm-up.
+     */
+    public List<VehicleCache> preloadRecent(int limit, Instant now) {
+        if (devMode || limit <= 0) return List.of();
+        return mongoHealthGuard.call(() -> {
+            List<VehicleCache> entries = cacheTemplate.find(Query.query(Criteria.where("expiresAt").gt(now))
+                    .with(Sort.by(Sort.Direction.DESC, "cachedAt"))
+                    .limit(limit), VehicleCache.class);
+            // Oldest first, so the newest entries end up most recently used in the LRU
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                recent.put(entries.get(i).getRegNoNormalized(), entries.get(i));
+            }
+            return entries;
+        }, List::of);
+    }
+
+    /**
+     * Stores the data for the normalized reg-no, replacing any previous entry (expired or not)
+     * so that a registration number never has more than one cache document. What changed against the
+     * replaced entry is kept by {@link VehicleHistoryService}, and {@link VehicleIdentifierIndex} is updated.
+     */
+    public VehicleCache save(String normalized, Map<String, Object> data, Instant cachedAt, Instant expiresAt) {
+        VehicleCache entry = VehicleCache.builder()
+                .regNoNormalized(normalized)
+                .responseData(data)
+                .cachedAt(cachedAt)
+                .expiresAt(expiresAt)
+                .build();
+        if (devMode) {
+            devModeCache.put(normalized, entry);
+            identifierIndex.update(entry);
+            return entry;
+        }
+        recent.put(normalized, entry);
+        mongoHealthGuard.run(() -> upsert(entry), () -> queueWrite(entry));
+        return entry;
+    }
+
+    private void upsert(VehicleCache entry) {
+        VehicleCache existing = cacheRepository.findFirstByRegNoNormalizedOrderByCachedAtDesc(entry.getRegNoNormalized())
+                .orElse(null);
+        if (existing != null) {
+            entry.setId(existing.getId());
+        }
+        cacheRepository.save(entry);
+        historyService.record(existing, entry);
+        identifierIndex.update(entry);
+    }
+
+    private void queueWrite(VehicleCache entry) {
+        if (pendingWrites.size() >= maxPendingWrites && !pendingWrites.containsKey(entry.getRegNoNormalized())) {
+            droppedWrites.increment();
+            return;
+        }
+        pendingWrites.put(entry.getRegNoNormalized(), entry);
+    }
+
+    private void replayPendingWrites() {
+        int written = 0;
+        for (Map.Entry<String, VehicleCache> pending : pendingWrites.entrySet()) {
+            VehicleCache entry = pending.getValue();
+            boolean saved = mongoHealthGuard.call(() -> {
+                upsert(entry);
+                return true;
+            }, () -> false);
+            if (!saved) break;
+            // Keep it queued if a newer write for the same reg-no arrived meanwhile
+            pendingWrites.remove(pending.getKey(), entry);
+            written++;
+        }
+        if (written > 0) {
+            log.info("Replayed {} vehicle cache writes queued while MongoDB was unavailable", written);
+        }
+    }
+}
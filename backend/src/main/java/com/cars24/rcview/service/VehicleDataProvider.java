@@ -0,0 +1,49 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.AppUser;
+
+/**
+ * An upstream source of RC data. Every provider converts its answer into a {@link VehicleDataResult},
+ * so the cache, masking and responses do not depend on which one answered. {@link VehicleDataRouter}
+ * picks the provider for each lookup from the ones listed in vehicle-data.providers.
+ */
+public interface VehicleDataProvider {
+
+    /**
+     * How urgently the caller needs the answer. Providers with a shared quota may serve higher priorities
+     * first; others ignore it.
+     */
+    enum Priority {
+        HIGHEST,
+        HIGH,
+        NORMAL,
+        /** Work nobody is waiting on, such as cache warming. */
+        BACKGROUND;
+
+        public static Priority of(AppUser.Role role) {
+            if (role == null) return NORMAL;
+            return switch (role) {
+                case SUPER_ADMIN -> HIGHEST;
+                case ADMIN -> HIGH;
+                case USER -> NORMAL;
+            };
+        }
+    }
+
+    /** Name used in vehicle-data.providers and in metric tags. */
+    String name();
+
+    /** False when the provider cannot be called at all (e.g. no API key); the router skips it. */
+    boolean isConfigured();
+
+    /** Looks up one registration number. Errors are returned in the result, never thrown. */
+    VehicleDataResult search(String vehicleNumber, String callerId, Priority priority);
+
+    /**
+     * Lookup that accepts upstream data at most maxAgeDays old (0: live), for providers with such an
+     * option; null means the provider's default. Others ignore it.
+     */
+    default VehicleDataResult search(String vehicleNumber, String callerId, Priority priority, Integer maxAgeDays) {
+        return search(vehicleNumber, callerId, priority);
+    }
+}
@@ -0,0 +1,40 @@
+package com.cars24.rcview.service;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * What a {@link VehicleDataProvider} returns for one lookup: the RC record, normalized to a flat map of
+ * RC fields (regNo, owner, maker, insurance dates...) whatever the provider's wire format, or an error
+ * message to show the user. This map is what gets cached, masked and returned.
+ */
+public final class VehicleDataResult {
+
+    private final Map<String, Object> data;
+    private final String errorMessage;
+    private final boolean transientFailure;
+
+    private VehicleDataResult(Map<String, Object> data, String errorMessage, boolean transientFailure) {
+        this.data = data;
+        this.errorMessage = errorMessage;
+        this.transientFailure = transientFailure;
+    }
+
+    public static VehicleDataResult ok(Map<String, Object> data) {
+        return new VehicleDataResult(data, null, false);
+    }
+
+    /** An error another provider would answer the same way (unknown number, rejected key, quota used up). */
+    public static VehicleDataResult error(String message) {
+        return new VehicleDataResult(null, message, false);
+    }
+
+    /** An error caused by the provider being unreachable or overloaded; another provider may still answer. */
+    public static VehicleDataResult unavailable(String message) {
+        return new VehicleDataResult(null, message, true);
+    }
+
+    public Optional<Map<String, Object>> getData() { return Optional.ofNullable(data); }
+    public String getErrorMessage() { return errorMessage; }
+    public boolean isTransientFailure() { return transientFailure; }
+}
@@ -0,0 +1,238 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.config.AsyncConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Routes each lookup to the {@link VehicleDataProvider}s listed in vehicle-data.providers:
+ * <ul>
+ *   <li>PRIMARY_FAILOVER: in the configured order, moving to the next provider when one is unreachable or
+ *       overloaded (any other error is returned as is);</li>
+ *   <li>LOWEST_LATENCY: the same, ordered by each provider's recent latency (an EWMA of successful calls);</li>
+ *   <li>PARALLEL_RACE: all healthy providers at once, first successful answer wins (each call uses that
+ *       provider's quota).</li>
+ * </ul>
+ * A provider that fails transiently failure-threshold times in a row is unhealthy for open-ms and only
+ * tried after the healthy ones; its next success makes it healthy again.
+ */
+@Service
+public class VehicleDataRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleDataRouter.class);
+    /** Weight of the newest latency in the moving average. */
+    private static final double EWMA_ALPHA = 0.2;
+
+    public enum Strategy { PRIMARY_FAILOVER, LOWEST_LATENCY, PARALLEL_RACE }
+
+    private final Map<String, VehicleDataProvider> available;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${vehicle-data.providers:vahan}")
+    private String providerNames;
+
+    @Value("${vehicle-data.routing:PRIMARY_FAILOVER}")
+    private Strategy strategy;
+
+    @Value("${vehicle-data.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${vehicle-data.open-ms:30000}")
+    private long openMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private List<ProviderState> providers;
+    private ExecutorService raceExecutor;
+
+    public VehicleDataRouter(List<VehicleDataProvider> providers, MeterRegistry meterRegistry) {
+        this.available = providers.stream().collect(Collectors.toMap(VehicleDataProvider::name, Function.identity()));
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        providers = new ArrayList<>();
+        for (String name : providerNames.split(",")) {
+            VehicleDataProvider provider = available.get(name.trim());
+            if (provider == null) {
+                throw new IllegalStateException("Unknown vehicle data provider '" + name.trim() + "', available: " + available.keySet());
+            }
+            providers.add(new ProviderState(provider));
+        }
+        if (strategy == Strategy.PARALLEL_RACE && providers.size() > 1) {
+            raceExecutor = Executors.newCachedThreadPool(AsyncConfig.ioThreadFactory("provider-race-", virtualThreads));
+        }
+        log.info("Vehicle data providers {} routed {}", Arrays.toString(providerNames.split(",")), strategy);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (raceExecutor != null) {
+            raceExecutor.shutdownNow();
+        }
+    }
+
+    /** True if at least one routed provider can be called. */
+    public boolean isConfigured() {
+        return providers.stream().anyMatch(p -> p.provider.isConfigured());
+    }
+
+    public VehicleDataResult search(String vehicleNumber, String callerId, VehicleDataProvider.Priority priority) {
+        return search(vehicleNumber, callerId, priority, null);
+    }
+
+    /** Lookup passing maxAgeDays on to the providers (see {@link VehicleDataProvider}); null for their default. */
+    public VehicleDataResult search(String vehicleNumber, String callerId, VehicleDataProvider.Priority priority,
+                                    Integer maxAgeDays) {
+        List<ProviderState> candidates = candidates();
+        if (candidates.isEmpty()) {
+            // Keeps the provider's own "not configured" message (e.g. missing Vahan key)
+            return providers.get(0).provider.search(vehicleNumber, callerId, priority, maxAgeDays);
+        }
+        if (raceExecutor != null && candidates.size() > 1) {
+            return race(candidates, vehicleNumber, callerId, priority, maxAgeDays);
+        }
+        VehicleDataResult result = null;
+        for (ProviderState candidate : candidates) {
+            result = candidate.search(vehicleNumber, callerId, priority, maxAgeDays);
+            // A permanent error (bad number, rejected key, quota used up) would only spend the next one's quota
+            if (!result.isTransientFailure()) {
+                return result;
+            }
+            log.debug("Provider {} failed for {}: {}", candidate.provider.name(), vehicleNumber, result.getErrorMessage());
+        }
+        return result;
+    }
+
+    /** Configured providers in the order to try: healthy ones by strategy, then unhealthy ones. */
+    private List<ProviderState> candidates() {
+        long now = System.nanoTime();
+        List<ProviderState> healthy = new ArrayList<>();
+        List<ProviderState> unhealthy = new ArrayList<>();
+        for (ProviderState p : providers) {
+            if (!p.provider.isConfigured()) continue;
+            (p.isHealthy(now) ? healthy : unhealthy).add(p);
+        }
+        if (strategy == Strategy.LOWEST_LATENCY) {
+            // Providers without a latency yet sort first, so they get measured
+            healthy.sort(Comparator.comparingDouble(ProviderState::latencyMs));
+        }
+        if (strategy == Strategy.PARALLEL_RACE && !healthy.isEmpty()) {
+            return healthy;
+        }
+        healthy.addAll(unhealthy);
+        return healthy;
+    }
+
+    private VehicleDataResult race(List<ProviderState> candidates, String vehicleNumber, String callerId,
+                                   VehicleDataProvider.Priority priority, Integer maxAgeDays) {
+        CompletionService<VehicleDataResult> completion = new ExecutorCompletionService<>(raceExecutor);
+        List<Future<VehicleDataResult>> calls = new ArrayList<>();
+        for (ProviderState candidate : candidates) {
+            calls.add(completion.submit(() -> candidate.search(vehicleNumber, callerId, priority, maxAgeDays)));
+        }
+        VehicleDataResult result = null;
+        try {
+            for (int i = 0; i < calls.size(); i++) {
+                result = completion.take().get();
+                if (result.getErrorMessage() == null) {
+                    return result;
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return result != null ? result : VehicleDataResult.unavailable("Vehicle lookup interrupted.");
+        } catch (ExecutionException e) {
+            return VehicleDataResult.unavailable("Vehicle lookup failed: " + e.getCause().getMessage());
+        } finally {
+            calls.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /** Health and latency of one provider; metrics are tagged with its name. */
+    private class ProviderState {
+        final VehicleDataProvider provider;
+        final Timer latency;
+        final Counter failures;
+        private int consecutiveFailures;
+        private long unhealthyUntil;
+        private double ewmaMs = Double.NaN;
+
+        ProviderState(VehicleDataProvider provider) {
+            this.provider = provider;
+            this.latency = meterRegistry.timer("vehicle.provider.latency", "provider", provider.name());
+            this.failures = meterRegistry.counter("vehicle.provider.failures", "provider", provider.name());
+            Gauge.builder("vehicle.provider.healthy", this, p -> p.isHealthy(System.nanoTime()) ? 1 : 0)
+                    .tag("provider", provider.name())
+                    .register(meterRegistry);
+        }
+
+        VehicleDataResult search(String vehicleNumber, String callerId, VehicleDataProvider.Priority priority,
+                                 Integer maxAgeDays) {
+            long start = System.nanoTime();
+            VehicleDataResult result = provider.search(vehicleNumber, callerId, priority, maxAgeDays);
+            long elapsed = System.nanoTime() - start;
+            latency.record(elapsed, TimeUnit.NANOSECONDS);
+            if (result.getErrorMessage() == null) {
+                recordSuccess(elapsed / 1_000_000.0);
+            } else if (result.isTransientFailure() && !Thread.currentThread().isInterrupted()) {
+                // An interrupted call lost a race; that says nothing about the provider's health
+                failures.increment();
+                recordFailure();
+            }
+            return result;
+        }
+
+        synchronized boolean isHealthy(long now) {
+            return consecutiveFailures < failureThreshold || now - unhealthyUntil >= 0;
+        }
+
+        synchronized double latencyMs() {
+            return Double.isNaN(ewmaMs) ? 0 : ewmaMs;
+        }
+
+        private synchronized void recordSuccess(double ms) {
+            if (consecutiveFailures >= failureThreshold) {
+                log.info("Vehicle data provider {} is healthy again", provider.name());
+            }
+            consecutiveFailures = 0;
+            ewmaMs = Double.isNaN(ewmaMs) ? ms : EWMA_ALPHA * ms + (1 - EWMA_ALPHA) * ewmaMs;
+        }
+
+        private synchronized void recordFailure() {
+            if (++consecutiveFailures >= failureThreshold) {
+                if (consecutiveFailures == failureThreshold) {
+                    log.warn("Vehicle data provider {} failed {} times in a row, trying it last for {} ms",
+                            provider.name(), failureThreshold, openMs);
+                }
+                unhealthyUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(openMs);
+            }
+        }
+    }
+}
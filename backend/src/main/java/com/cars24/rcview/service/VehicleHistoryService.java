@@ -0,0 +1,154 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.VehicleCache;
+import com.cars24.rcview.entity.VehicleHistory;
+import com.cars24.rcview.repository.VehicleHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * History of each vehicle's RC data in the vehicle_history collection. {@link VehicleCacheService} hands over
+ * the replaced and the new cache entry on every refresh; only the top-level keys that differ are stored, so
+ * a refresh with unchanged data adds nothing. The first version of a registration number (or the entry
+ * cached before history was enabled) is stored whole as a baseline.
+ */
+@Service
+public class VehicleHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleHistoryService.class);
+
+    private final VehicleHistoryRepository historyRepository;
+
+    @Value("${app.history.enabled:true}")
+    private boolean enabled;
+
+    public VehicleHistoryService(VehicleHistoryRepository historyRepository) {
+        this.historyRepository = historyRepository;
+    }
+
+    /**
+     * Records {@code current} as the next version after {@code previous} (null if the reg-no had no cache
+     * entry). Failures are logged, not thrown: the cache write has already succeeded.
+     */
+    void record(VehicleCache previous, VehicleCache current) {
+        if (!enabled) return;
+        try {
+            String normalized = current.getRegNoNormalized();
+            if (previous == null || previous.getResponseData() == null) {
+                historyRepository.save(baseline(current));
+                return;
+            }
+            VehicleHistory delta = delta(previous.getResponseData(), current);
+            if (delta == null) return;
+            if (!historyRepository.existsByRegNoNormalized(normalized)) {
+                historyRepository.save(baseline(previous));
+            }
+            historyRepository.save(delta);
+        } catch (Exception e) {
+            log.warn("Could not record history for {}: {}", current.getRegNoNormalized(), e.getMessage());
+        }
+    }
+
+    /**
+     * The versions of the normalized reg-no, oldest first. A baseline lists its whole payload under
+     * {@code data}; every other version lists each changed key under {@code changes} as {@code from}/{@code to}
+     * (a removed key has no {@code to}), replayed from the versions before it.
+     */
+    public List<Map<String, Object>> timeline(String normalized) {
+        List<Map<String, Object>> timeline = new ArrayList<>();
+        Map<String, Object> state = new HashMap<>();
+        for (VehicleHistory version : historyRepository.findByRegNoNormalizedOrderByFetchedAtAsc(normalized)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("fetchedAt", version.getFetchedAt());
+            item.put("baseline", version.isBaseline());
+            Map<String, Object> changed = version.getChanged() != null ? version.getChanged() : Map.of();
+            if (version.isBaseline()) {
+                state = new HashMap<>(changed);
+                item.put("data", changed);
+            } else {
+                Map<String, Object> changes = new LinkedHashMap<>();
+                for (Map.Entry<String, Object> e : changed.entrySet()) {
+                    Map<String, Object> change = new LinkedHashMap<>();
+                    change.put("from", state.get(e.getKey()));
+                    change.put("to", e.getValue());
+                    changes.put(e.getKey(), change);
+                    state.put(e.getKey(), e.getValue());
+                }
+                if (version.getRemoved() != null) {
+                    for (String key : version.getRemoved()) {
+                        Map<String, Object> change = new LinkedHashMap<>();
+                        change.put("from", state.remove(key));
+                        changes.put(key, change);
+                    }
+                }
+                item.put("changes", changes);
+            }
+            timeline.add(item);
+        }
+        return timeline;
+    }
+
+    private static VehicleHistory baseline(VehicleCache entry) {
+        return VehicleHistory.builder()
+                .regNoNormalized(entry.getRegNoNormalized())
+                .fetchedAt(entry.getCachedAt())
+                .baseline(true)
+                .changed(entry.getResponseData() != null ? entry.getResponseData() : Map.of())
+                .build();
+    }
+
+    /** The keys of {@code current} that differ from {@code before}; null if there are none. */
+    private static VehicleHistory delta(Map<String, Object> before, VehicleCache current) {
+        Map<String, Object> after = current.getResponseData() != null ? current.getResponseData() : Map.of();
+        Map<String, Object> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : after.entrySet()) {
+            if (!before.containsKey(e.getKey()) || !sameValue(before.get(e.getKey()), e.getValue())) {
+                changed.put(e.getKey(), e.getValue());
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String key : before.keySet()) {
+            if (!after.containsKey(key)) {
+                removed.add(key);
+            }
+        }
+        if (changed.isEmpty() && removed.isEmpty()) return null;
+        return VehicleHistory.builder()
+                .regNoNormalized(current.getRegNoNormalized())
+                .fetchedAt(current.getCachedAt())
+                .changed(changed)
+                .removed(removed.isEmpty() ? null : removed)
+                .build();
+    }
+
+    /**
+     * Deep comparison by content. Nested objects read back from MongoDB are BSON Documents, which are never
+     * equal to the plain maps parsed from a Vahan response, so maps and lists are compared element-wise.
+     */
+    private static boolean sameValue(Object a, Object b) {
+        if (a instanceof Map<?, ?> ma && b instanceof Map<?, ?> mb) {
+            if (ma.size() != mb.size()) return false;
+            for (Map.Entry<?, ?> e : ma.entrySet()) {
+                if (!mb.containsKey(e.getKey()) || !sameValue(e.getValue(), mb.get(e.getKey()))) return false;
+            }
+            return true;
+        }
+        if (a instanceof List<?> la && b instanceof List<?> lb) {
+            if (la.size() != lb.size()) return false;
+            for (int i = 0; i < la.size(); i++) {
+                if (!sameValue(la.get(i), lb.get(i))) return false;
+            }
+            return true;
+        }
+        return Objects.equals(a, b);
+    }
+}
@@ -0,0 +1,228 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.VehicleCache;
+import com.cars24.rcview.entity.VehicleIdentifier;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Chassis and engine numbers of cached vehicles, in the vehicle_identifiers collection. Every cache write
+ * updates the entries of that vehicle (see {@link VehicleCacheService}), so lookups by these numbers are
+ * answered from the index and the cache without calling Vahan. Values are matched exactly, by prefix, by
+ * suffix (on the reversed value, so it is an index range scan as well) or anywhere in the value (a scan of
+ * the index keys of that type). In dev mode the index is kept in memory.
+ */
+@Service
+public class VehicleIdentifierIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleIdentifierIndex.class);
+    private static final int MAX_LENGTH = 40;
+
+    public enum Match { EXACT, PREFIX, SUFFIX, CONTAINS }
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final MongoHealthGuard mongoHealthGuard;
+    private final Map<String, VehicleIdentifier> devModeIndex = new ConcurrentHashMap<>();
+
+    @Value("${app.dev-mode:false}")
+    private boolean devMode;
+
+    @Value("${app.identifier-index.chassis-keys:chassis,chassisNo,chassisNumber}")
+    private String chassisKeys;
+
+    @Value("${app.identifier-index.engine-keys:engine,engineNo,engineNumber}")
+    private String engineKeys;
+
+    @Value("${app.identifier-index.min-partial-length:4}")
+    private int minPartialLength;
+
+    /** Higher than min-partial-length: a short fragment anywhere in the number matches too many vehicles. */
+    @Value("${app.identifier-index.min-contains-length:6}")
+    private int minContainsLength;
+
+    public VehicleIdentifierIndex(MongoTemplate mongoTemplate, MongoMappingContext mappingContext,
+                                  MongoHealthGuard mongoHealthGuard) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.mongoHealthGuard = mongoHealthGuard;
+    }
+
+    /**
+     * Creates the indexes declared on {@link VehicleIdentifier} (index auto-creation is off), in the
+     * background so an unreachable MongoDB does not hold up startup.
+     */
+    @PostConstruct
+    void ensureIndexes() {
+        if (devMode) return;
+        Thread.ofPlatform().daemon().name("identifier-index-init").start(() -> {
+            try {
+                mongoHealthGuard.run(() -> {
+                    IndexOperations ops = mongoTemplate.indexOps(VehicleIdentifier.class);
+                    new MongoPersistentEntityIndexResolver(mappingContext)
+                            .resolveIndexFor(VehicleIdentifier.class)
+                            .forEach(ops::ensureIndex);
+                }, () -> log.warn("MongoDB unavailable, vehicle_identifiers indexes not checked"));
+            } catch (RuntimeException e) {
+                log.warn("Could not create vehicle_identifiers indexes: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Replaces the index entries of the cached vehicle with the numbers in its current data. Connection
+     * failures are rethrown, so the cache write is queued and replayed; other errors are only logged.
+     */
+    void update(VehicleCache entry) {
+        try {
+            Instant now = Instant.now();
+            for (VehicleIdentifier.Type type : VehicleIdentifier.Type.values()) {
+                String id = type + ":" + entry.getRegNoNormalized();
+                String value = extract(entry.getResponseData(), type);
+                if (value == null) {
+                    if (devMode) {
+                        devModeIndex.remove(id);
+                    } else {
+                        mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), VehicleIdentifier.class);
+                    }
+                    continue;
+                }
+                VehicleIdentifier identifier = VehicleIdentifier.builder()
+                        .id(id)
+                        .type(type)
+                        .value(value)
+                        .reversed(reverse(value))
+                        .regNoNormalized(entry.getRegNoNormalized())
+                        .updatedAt(now)
+                        .build();
+                if (devMode) {
+                    devModeIndex.put(id, identifier);
+                } else {
+                    mongoTemplate.save(identifier);
+                }
+            }
+        } catch (RuntimeException e) {
+            if (MongoHealthGuard.isConnectionFailure(e)) throw e;
+            log.warn("Could not index chassis/engine numbers of {}: {}", entry.getRegNoNormalized(), e.getMessage());
+        }
+    }
+
+    /**
+     * Normalized registration numbers of the vehicles whose number of this type matches, at most
+     * {@code limit}. Empty while MongoDB is unavailable.
+     *
+     * @throws IllegalArgumentException if the number is not 1-40 letters and digits, or shorter than
+     *                                  min-partial-length for a prefix or suffix match (min-contains-length
+     *                                  for a contains match)
+     */
+    public List<String> find(VehicleIdentifier.Type type, String number, Match match, int limit) {
+        String value = normalize(number);
+        if (value == null || value.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Number must be 1 to " + MAX_LENGTH + " letters and digits");
+        }
+        int minLength = switch (match) {
+            case EXACT -> 1;
+            case PREFIX, SUFFIX -> minPartialLength;
+            case CONTAINS -> Math.max(minPartialLength, minContainsLength);
+        };
+        if (value.length() < minLength) {
+            throw new IllegalArgumentException((match == Match.CONTAINS ? "Contains" : "Partial")
+                    + " matches need at least " + minLength + " characters");
+        }
+        if (devMode) {
+            return devModeIndex.values().stream()
+                    .filter(i -> i.getType() == type && matches(i.getValue(), value, match))
+                    .map(VehicleIdentifier::getRegNoNormalized)
+                    .distinct()
+                    .limit(limit)
+                    .toList();
+        }
+        // value holds only [A-Z0-9], so it needs no regex escaping
+        Criteria criteria = Criteria.where("type").is(type);
+        switch (match) {
+            case EXACT -> criteria.and("value").is(value);
+            case PREFIX -> criteria.and("value").regex("^" + value);
+            case SUFFIX -> criteria.and("reversed").regex("^" + reverse(value));
+            case CONTAINS -> criteria.and("value").regex(value);
+        }
+        Query query = Query.query(criteria).limit(limit);
+        query.fields().include("regNoNormalized");
+        return mongoHealthGuard.call(() -> mongoTemplate.find(query, VehicleIdentifier.class).stream()
+                .map(VehicleIdentifier::getRegNoNormalized)
+                .distinct()
+                .toList(), List::of);
+    }
+
+    /**
+     * Re-indexes every document in vehicle_cache, e.g. for entries cached before this index existed.
+     * Returns the number of vehicles processed (0 in dev mode, where every write is indexed anyway).
+     */
+    public int rebuild() {
+        if (devMode) return 0;
+        Query query = new Query();
+        query.fields().include("regNoNormalized");
+        Stream.concat(keys(VehicleIdentifier.Type.CHASSIS).stream(), keys(VehicleIdentifier.Type.ENGINE).stream())
+                .forEach(key -> query.fields().include("responseData." + key));
+        AtomicInteger count = new AtomicInteger();
+        try (Stream<VehicleCache> entries = mongoTemplate.stream(query, VehicleCache.class)) {
+            entries.forEach(entry -> {
+                update(entry);
+                count.incrementAndGet();
+            });
+        }
+        log.info("Rebuilt vehicle_identifiers from {} cached vehicles", count.get());
+        return count.get();
+    }
+
+    private String extract(Map<String, Object> data, VehicleIdentifier.Type type) {
+        if (data == null) return null;
+        for (String key : keys(type)) {
+            Object raw = data.get(key);
+            String value = raw != null ? normalize(raw.toString()) : null;
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    private List<String> keys(VehicleIdentifier.Type type) {
+        String keys = type == VehicleIdentifier.Type.CHASSIS ? chassisKeys : engineKeys;
+        return Arrays.stream(keys.split(",")).map(String::trim).filter(k -> !k.isEmpty()).toList();
+    }
+
+    /** Upper case letters and digits only (spaces, dashes and the like dropped); null if nothing is left. */
+    static String normalize(String number) {
+        if (number == null) return null;
+        String value = number.toUpperCase().replaceAll("[^A-Z0-9]", "");
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean matches(String candidate, String value, Match match) {
+        return switch (match) {
+            case EXACT -> candidate.equals(value);
+            case PREFIX -> candidate.startsWith(value);
+            case SUFFIX -> candidate.endsWith(value);
+            case CONTAINS -> candidate.contains(value);
+        };
+    }
+
+    private static String reverse(String value) {
+        return new StringBuilder(value).reverse().toString();
+    }
+}
@@ -1,15 +1,15 @@
 package com.cars24.rcview.service;
 
+import com.cars24.rcview.config.AsyncConfig;
 import com.cars24.rcview.dto.VehicleSearchResponse;
+import com.cars24.rcview.entity.AppUser;
 import com.cars24.rcview.entity.AuditLog;
 import com.cars24.rcview.entity.VehicleCache;
-import com.cars24.rcview.repository.AuditLogRepository;
-import com.cars24.rcview.repository.VehicleCacheRepository;
+import com.cars24.rcview.entity.VehicleIdentifier;
 import com.cars24.rcview.security.CustomOAuth2User;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,125 +17,407 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class VehicleSearchService {
 
     private static final Logger log = LoggerFactory.getLogger(VehicleSearchService.class);
 
-    private final VehicleCacheRepository cacheRepository;
-    private final AuditLogRepository auditLogRepository;
-    private final VahanApiClient vahanApiClient;
+    private final VehicleCacheService cacheService;
+    private final AuditService auditService;
+    private final VehicleDataRouter vehicleDataRouter;
     private final ConfigService configService;
     private final RateLimitService rateLimitService;
+    private final RecentSearchService recentSearchService;
+    private final VehicleIdentifierIndex identifierIndex;
+    private final Executor vahanExecutor;
+    private final Executor precheckExecutor;
 
-    public VehicleSearchService(VehicleCacheRepository cacheRepository, AuditLogRepository auditLogRepository, VahanApiClient vahanApiClient, ConfigService configService, RateLimitService rateLimitService) {
-        this.cacheRepository = cacheRepository;
-        this.auditLogRepository = auditLogRepository;
-        this.vahanApiClient = vahanApiClient;
+    public VehicleSearchService(VehicleCacheService cacheService, AuditService auditService, VehicleDataRouter vehicleDataRouter, ConfigService configService, RateLimitService rateLimitService,
+                                RecentSearchService recentSearchService, VehicleIdentifierIndex identifierIndex,
+                                @Qualifier(AsyncConfig.VAHAN_EXECUTOR) Executor vahanExecutor,
+                                @Qualifier(AsyncConfig.PRECHECK_EXECUTOR) Executor precheckExecutor) {
+        this.cacheService = cacheService;
+        this.auditService = auditService;
+        this.vehicleDataRouter = vehicleDataRouter;
         this.configService = configService;
         this.rateLimitService = rateLimitService;
+        this.recentSearchService = recentSearchService;
+        this.identifierIndex = identifierIndex;
+        this.vahanExecutor = vahanExecutor;
+        this.precheckExecutor = precheckExecutor;
     }
 
     @Value("${app.dev-mode:false}")
     private boolean devMode;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final Map<String, CachedEntry> devModeCache = new ConcurrentHashMap<>();
+    @Value("${app.identifier-index.max-results:10}")
+    private int identifierMaxResults;
 
-    private static class CachedEntry {
-        Map<String, Object> data;
-        Instant expiresAt;
+    @Value("${app.response-fields.profiles.summary:owner,model,vehicleManufacturerName,fuelType,vehicleInsuranceUpto}")
+    private String summaryProfile;
+
+    @Value("${app.response-fields.profiles.insurance:vehicleInsuranceCompanyName,vehicleInsuranceUpto,vehicleInsurancePolicyNumber}")
+    private String insuranceProfile;
+
+    @Value("${app.response-fields.profiles.puc:puccNumber,puccUpto}")
+    private String pucProfile;
+
+    /**
+     * Outcome of the synchronous part of a search (checks + cache lookup): either a final
+     * response, or a cache miss that still has to be fetched from Vahan.
+     */
+    private record SearchStart(VehicleSearchResponse response, String rawRegNo, String normalized,
+                               String userId, String userEmail, VehicleDataProvider.Priority priority) {
+
+        static SearchStart done(VehicleSearchResponse response) {
+            return new SearchStart(response, null, null, null, null, null);
+        }
     }
 
     public VehicleSearchResponse search(String registrationNumber) {
+        return search(registrationNumber, ResponseFields.ALL, Freshness.DEFAULT);
+    }
+
+    /** Search returning only the selected data keys (see {@link #resolveFields}), no older than {@code freshness} allows. */
+    public VehicleSearchResponse search(String registrationNumber, ResponseFields fields, Freshness freshness) {
+        SearchStart start = begin(registrationNumber, fields, freshness);
+        if (start.response() != null) {
+            return start.response();
+        }
+        return remember(start, fetchFromVahan(start.rawRegNo(), start.normalized(), start.userId(), start.userEmail(),
+                start.priority(), fields, freshness));
+    }
+
+    /** Error for a recent-search id that is not (or no longer) in the user's recent searches. */
+    public static final String RECENT_NOT_FOUND = "Recent search not found.";
+
+    /**
+     * Runs one of the current user's recent searches (see {@link RecentSearchService}) again, with the usual
+     * checks and audit entry. Any unexpired cache entry answers it, whatever freshness the original search
+     * asked for; only a miss goes to Vahan.
+     */
+    public VehicleSearchResponse searchRecent(String recentId, ResponseFields fields) {
         String userId = getCurrentUserId();
-        String userEmail = getCurrentUserEmail();
         if (userId == null) {
             return VehicleSearchResponse.builder()
                     .success(false)
                     .errorMessage("Unauthorized")
                     .build();
         }
-
-        if (!rateLimitService.allowRequest(userId)) {
-            if (!devMode) {
-                auditLogRepository.save(AuditLog.builder()
-                        .userId(userId)
-                        .userEmail(userEmail)
-                        .action(AuditLog.AuditAction.SEARCH)
-                        .registrationNumber(normalizeRegNo(registrationNumber))
-                        .details("RATE_LIMIT_PER_SECOND")
-                        .createdAt(Instant.now())
-                        .build());
-            }
+        String normalized = recentSearchService.resolve(userId, recentId);
+        if (normalized == null) {
             return VehicleSearchResponse.builder()
                     .success(false)
-                    .errorMessage("Too many requests. Please slow down.")
+                    .errorMessage(RECENT_NOT_FOUND)
                     .build();
         }
+        return search(normalized, fields, Freshness.DEFAULT);
+    }
+
+    /**
+     * The data keys for a request: the named profile (summary, insurance or puc, see
+     * app.response-fields.profiles) plus any comma-separated {@code fields}. Neither means all fields.
+     *
+     * @throws IllegalArgumentException for an unknown profile or an invalid field name
+     */
+    public ResponseFields resolveFields(String fields, String profile) {
+        if (profile == null || profile.isBlank()) {
+            return ResponseFields.parse(fields);
+        }
+        String profileFields = switch (profile.trim().toLowerCase()) {
+            case "summary" -> summaryProfile;
+            case "insurance" -> insuranceProfile;
+            case "puc" -> pucProfile;
+            case "full" -> null;
+            default -> throw new IllegalArgumentException("Unknown profile: " + profile.trim());
+        };
+        if (profileFields == null) return ResponseFields.ALL;
+        return ResponseFields.parse(fields == null || fields.isBlank() ? profileFields : profileFields + "," + fields);
+    }
 
+    /**
+     * Non-blocking variant of {@link #search}. Checks and the cache lookup run on the calling thread,
+     * so cache hits and rejections complete immediately; a cache miss is fetched from Vahan on the
+     * dedicated Vahan executor, leaving the calling (servlet) thread free. If that executor's queue is
+     * full the search is answered with Vahan's "busy" error at once.
+     */
+    public CompletableFuture<VehicleSearchResponse> searchAsync(String registrationNumber, ResponseFields fields,
+                                                                Freshness freshness) {
+        SearchStart start = begin(registrationNumber, fields, freshness);
+        if (start.response() != null) {
+            return CompletableFuture.completedFuture(start.response());
+        }
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> remember(start, fetchFromVahan(start.rawRegNo(), start.normalized(), start.userId(),
+                            start.userEmail(), start.priority(), fields, freshness)),
+                    vahanExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(VehicleSearchResponse.builder()
+                    .success(false)
+                    .fromCache(false)
+                    .registrationNumber(start.normalized())
+                    .errorMessage(VahanApiClient.BUSY)
+                    .build());
+        }
+    }
+
+    /** Outcome of {@link #searchByIdentifier}: the matching vehicles, or why the lookup was refused. */
+    public record IdentifierMatches(String errorMessage, List<VehicleSearchResponse> vehicles) {
+
+        static IdentifierMatches refused(String errorMessage) {
+            return new IdentifierMatches(errorMessage, List.of());
+        }
+    }
+
+    /**
+     * Cached vehicles whose chassis or engine number matches {@code number} (see {@link VehicleIdentifierIndex}),
+     * at most app.identifier-index.max-results. Never calls Vahan. Subject to the per-second and daily limits;
+     * each vehicle returned is recorded as a CACHE_HIT (details BY_CHASSIS or BY_ENGINE) and uses one unit of
+     * the daily quota, so no more vehicles are returned than the user has left.
+     *
+     * @throws IllegalArgumentException for an invalid number or one too short for a partial match
+     */
+    public IdentifierMatches searchByIdentifier(VehicleIdentifier.Type type, String number,
+                                                VehicleIdentifierIndex.Match match, ResponseFields fields) {
+        String userId = getCurrentUserId();
+        String userEmail = getCurrentUserEmail();
+        if (userId == null) {
+            return IdentifierMatches.refused("Unauthorized");
+        }
+        if (!rateLimitService.allowRequest(userId)) {
+            auditService.recordRejection(AuditLog.builder()
+                    .userId(userId)
+                    .userEmail(userEmail)
+                    .action(AuditLog.AuditAction.SEARCH)
+                    .details("RATE_LIMIT_PER_SECOND")
+                    .createdAt(Instant.now())
+                    .build());
+            return IdentifierMatches.refused("Too many requests. Please slow down.");
+        }
         if (!rateLimitService.searchCooldownPassed(userId)) {
-            return VehicleSearchResponse.builder()
+            return IdentifierMatches.refused("Please wait a moment before searching again.");
+        }
+        List<String> regNos = identifierIndex.find(type, number, match, identifierMaxResults);
+        // Every vehicle returned counts towards the daily quota, so no more than what is left of it
+        long remaining = rateLimitService.getRemainingDailyCount(userId);
+        if (remaining <= 0) {
+            return IdentifierMatches.refused("Daily search limit reached. Try again tomorrow.");
+        }
+        Instant now = Instant.now();
+        Map<String, VehicleCache> entries = cacheService.findValidAll(regNos, now);
+        List<VehicleSearchResponse> vehicles = new ArrayList<>();
+        for (String regNo : regNos) {
+            VehicleCache vc = entries.get(regNo);
+            if (vc == null) continue;
+            if (vehicles.size() >= remaining) break;
+            auditService.record(AuditLog.builder()
+                    .userId(userId)
+                    .userEmail(userEmail)
+                    .action(AuditLog.AuditAction.CACHE_HIT)
+                    .registrationNumber(regNo)
+                    .details("BY_" + type)
+                    .createdAt(now)
+                    .build());
+            vehicles.add(cachedResponse(vc, fields));
+        }
+        return new IdentifierMatches(null, vehicles);
+    }
+
+    /** Adds a successful Vahan fetch to the user's recent searches (cache hits are added in {@link #begin}). */
+    private VehicleSearchResponse remember(SearchStart start, VehicleSearchResponse response) {
+        if (response.isSuccess()) {
+            recentSearchService.record(start.userId(), start.normalized(), response.getCachedAt());
+        }
+        return response;
+    }
+
+    private SearchStart begin(String registrationNumber, ResponseFields fields, Freshness freshness) {
+        String userId = getCurrentUserId();
+        String userEmail = getCurrentUserEmail();
+        if (userId == null) {
+            return SearchStart.done(VehicleSearchResponse.builder()
                     .success(false)
-                    .errorMessage("Please wait a moment before searching again.")
-                    .build();
+                    .errorMessage("Unauthorized")
+                    .build());
         }
 
-        if (!rateLimitService.withinDailyLimit(userId)) {
-            return VehicleSearchResponse.builder()
+        if (!rateLimitService.allowRequest(userId)) {
+            auditService.recordRejection(AuditLog.builder()
+                    .userId(userId)
+                    .userEmail(userEmail)
+                    .action(AuditLog.AuditAction.SEARCH)
+                    .details("RATE_LIMIT_PER_SECOND")
+                    .createdAt(Instant.now())
+                    .build());
+            return SearchStart.done(VehicleSearchResponse.builder()
                     .success(false)
-                    .errorMessage("Daily search limit reached. Try again tomorrow.")
-                    .build();
+                    .errorMessage("Too many requests. Please slow down.")
+                    .build());
+        }
+
+        if (!rateLimitService.searchCooldownPassed(userId)) {
+            return SearchStart.done(VehicleSearchResponse.builder()
+                    .success(false)
+                    .errorMessage("Please wait a moment before searching again.")
+                    .build());
         }
 
         String normalized = normalizeRegNo(registrationNumber);
         if (normalized == null || normalized.isBlank()) {
-            return VehicleSearchResponse.builder()
+            return SearchStart.done(VehicleSearchResponse.builder()
                     .success(false)
                     .errorMessage("Invalid registration number")
-                    .build();
+                    .build());
         }
 
-        int ttlDays = configService.getCacheTtlDays();
+        // Quota count and cache lookup are independent MongoDB queries: run the count on the pre-check
+        // executor while this thread does the lookup, so a cache hit costs one round-trip instead of two.
+        // A FutureTask, unlike a CompletableFuture, interrupts the count when it is cancelled.
         Instant now = Instant.now();
-        Instant expiresAt = now.plus(ttlDays, ChronoUnit.DAYS);
-
+        FutureTask<Boolean> withinDailyLimit = new FutureTask<>(() -> rateLimitService.withinDailyLimit(userId));
         if (devMode) {
-            CachedEntry entry = devModeCache.get(normalized);
-            if (entry != null && entry.expiresAt.isAfter(now)) {
-                return VehicleSearchResponse.builder()
-                        .success(true)
-                        .fromCache(true)
-                        .registrationNumber(maskRegNo(normalized))
-                        .data(maskDataFields(entry.data))
-                        .build();
-            }
+            withinDailyLimit.run();
         } else {
-            var cached = cacheRepository.findByRegNoNormalizedAndExpiresAtAfter(normalized, now);
-            if (cached.isPresent()) {
-                VehicleCache vc = cached.get();
-                auditLogRepository.save(AuditLog.builder()
-                        .userId(userId)
-                        .userEmail(userEmail)
-                        .action(AuditLog.AuditAction.CACHE_HIT)
-                        .registrationNumber(normalized)
-                        .createdAt(now)
-                        .build());
-                return VehicleSearchResponse.builder()
-                        .success(true)
-                        .fromCache(true)
-                        .registrationNumber(maskRegNo(vc.getRegNoNormalized()))
-                        .data(maskDataFields(vc.getResponseData()))
-                        .build();
-            }
+            precheckExecutor.execute(withinDailyLimit);
+        }
+        Optional<VehicleCache> cached;
+        try {
+            cached = cacheService.findValid(normalized, now, fields);
+        } catch (RuntimeException e) {
+            withinDailyLimit.cancel(true);
+            throw e;
+        }
+
+        if (!joinPrecheck(withinDailyLimit)) {
+            return SearchStart.done(VehicleSearchResponse.builder()
+                    .success(false)
+                    .errorMessage("Daily search limit reached. Try again tomorrow.")
+                    .build());
+        }
+        if (cached.isPresent() && freshness.accepts(cached.get(), now)) {
+            recentSearchService.record(userId, normalized, now);
+            return SearchStart.done(cacheHit(cached.get(), userId, userEmail, now, fields));
+        }
+        if (freshness.cacheOnly()) {
+            auditService.record(AuditLog.builder()
+                    .userId(userId)
+                    .userEmail(userEmail)
+                    .action(AuditLog.AuditAction.CACHE_MISS)
+                    .registrationNumber(normalized)
+                    .details("CACHE_ONLY_MISS")
+                    .createdAt(now)
+                    .build());
+            return SearchStart.done(VehicleSearchResponse.builder()
+                    .success(false)
+                    .fromCache(false)
+                    .registrationNumber(maskRegNo(normalized))
+                    .errorMessage(CACHE_ONLY_MISS)
+                    .build());
         }
+        return new SearchStart(null, registrationNumber.trim(), normalized, userId, userEmail,
+                VehicleDataProvider.Priority.of(getCurrentUserRole()));
+    }
+
+    /**
+     * When the cache entry a search would be answered from was cached, if there is one that
+     * {@code freshness} accepts. Costs no quota, cooldown or audit entry: for answering a conditional
+     * lookup whose client already holds that entry's data.
+     */
+    public Optional<Instant> cachedAt(String registrationNumber, Freshness freshness) {
+        if (getCurrentUserId() == null) return Optional.empty();
+        String normalized = normalizeRegNo(registrationNumber);
+        if (normalized == null || normalized.isBlank()) return Optional.empty();
+        Instant now = Instant.now();
+        return cacheService.findValid(normalized, now)
+                .filter(entry -> freshness.accepts(entry, now))
+                .map(VehicleCache::getCachedAt);
+    }
+
+    /** Error for a cacheOnly search without a (fresh enough) cache entry. */
+    public static final String CACHE_ONLY_MISS = "No cached data for this registration number (cacheOnly).";
+
+    /** Waits for a pre-check, rethrowing its failure as thrown by the check itself. */
+    private static boolean joinPrecheck(Future<Boolean> check) {
+        try {
+            return check.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            check.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking the daily limit", e);
+        }
+    }
+
+    /** Builds the masked response for a valid cache entry and records the CACHE_HIT. */
+    VehicleSearchResponse cacheHit(VehicleCache vc, String userId, String userEmail, Instant now) {
+        return cacheHit(vc, userId, userEmail, now, ResponseFields.ALL);
+    }
+
+    private VehicleSearchResponse cacheHit(VehicleCache vc, String userId, String userEmail, Instant now,
+                                           ResponseFields fields) {
+        auditService.record(AuditLog.builder()
+                .userId(userId)
+                .userEmail(userEmail)
+                .action(AuditLog.AuditAction.CACHE_HIT)
+                .registrationNumber(vc.getRegNoNormalized())
+                .createdAt(now)
+                .build());
+        return cachedResponse(vc, fields);
+    }
+
+    /** The masked response for a cache entry, without side effects (also used by {@link WarmupService}). */
+    static VehicleSearchResponse cachedResponse(VehicleCache vc) {
+        return cachedResponse(vc, ResponseFields.ALL);
+    }
 
-        VahanSearchResult apiResult = vahanApiClient.search(registrationNumber.trim());
+    private static VehicleSearchResponse cachedResponse(VehicleCache vc, ResponseFields fields) {
+        return VehicleSearchResponse.builder()
+                .success(true)
+                .fromCache(true)
+                .registrationNumber(maskRegNo(vc.getRegNoNormalized()))
+                .data(maskDataFields(fields.apply(vc.getResponseData())))
+                .cachedAt(vc.getCachedAt())
+                .build();
+    }
+
+    /**
+     * Calls Vahan for a cache miss, stores the result and records the API_CALL (or NO_DATA search).
+     * Callers must have passed the rate-limit and daily-quota checks already; the provider call gets
+     * {@code priority} (for Vahan, a lane of the global partner quota).
+     */
+    VehicleSearchResponse fetchFromVahan(String rawRegNo, String normalized, String userId, String userEmail,
+                                         VehicleDataProvider.Priority priority) {
+        return fetchFromVahan(rawRegNo, normalized, userId, userEmail, priority, ResponseFields.ALL, Freshness.DEFAULT);
+    }
+
+    /**
+     * As above, asking the providers for data no older than {@code freshness.maxAgeDays()}. The full data
+     * is cached, the response carries only {@code fields}.
+     */
+    private VehicleSearchResponse fetchFromVahan(String rawRegNo, String normalized, String userId, String userEmail,
+                                                 VehicleDataProvider.Priority priority, ResponseFields fields,
+                                                 Freshness freshness) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(configService.getCacheTtlDays(), ChronoUnit.DAYS);
+
+        VehicleDataResult apiResult = vehicleDataRouter.search(rawRegNo, userId, priority, freshness.maxAgeDays());
         if (apiResult.getErrorMessage() != null) {
             return VehicleSearchResponse.builder()
                     .success(false)
@@ -145,16 +427,14 @@ public class VehicleSearchService {
                     .build();
         }
         if (apiResult.getData().isEmpty()) {
-            if (!devMode) {
-                auditLogRepository.save(AuditLog.builder()
-                        .userId(userId)
-                        .userEmail(userEmail)
-                        .action(AuditLog.AuditAction.SEARCH)
-                        .registrationNumber(normalized)
-                        .details("NO_DATA")
-                        .createdAt(now)
-                        .build());
-            }
+            auditService.record(AuditLog.builder()
+                    .userId(userId)
+                    .userEmail(userEmail)
+                    .action(AuditLog.AuditAction.SEARCH)
+                    .registrationNumber(normalized)
+                    .details("NO_DATA")
+                    .createdAt(now)
+                    .build());
             return VehicleSearchResponse.builder()
                     .success(false)
                     .fromCache(false)
@@ -163,43 +443,22 @@ public class VehicleSearchService {
                     .build();
         }
 
-        JsonNode root = apiResult.getData().get();
-        // API returns data at root.data, not root.response.data
-        JsonNode dataNode = root.path("data");
-        if (dataNode.isMissingNode() || !dataNode.isObject()) {
-            dataNode = root.path("response").path("data");
-        }
-        Map<String, Object> dataMap = dataNode.isObject()
-                ? objectMapper.convertValue(dataNode, Map.class)
-                : new HashMap<>();
-
-        if (devMode) {
-            CachedEntry entry = new CachedEntry();
-            entry.data = dataMap;
-            entry.expiresAt = expiresAt;
-            devModeCache.put(normalized, entry);
-        } else {
-            VehicleCache toSave = VehicleCache.builder()
-                    .regNoNormalized(normalized)
-                    .responseData(dataMap)
-                    .cachedAt(now)
-                    .expiresAt(expiresAt)
-                    .build();
-            cacheRepository.save(toSave);
-            auditLogRepository.save(AuditLog.builder()
-                    .userId(userId)
-                    .userEmail(userEmail)
-                    .action(AuditLog.AuditAction.API_CALL)
-                    .registrationNumber(normalized)
-                    .createdAt(now)
-                    .build());
-        }
+        Map<String, Object> dataMap = apiResult.getData().get();
+        cacheService.save(normalized, dataMap, now, expiresAt);
+        auditService.record(AuditLog.builder()
+                .userId(userId)
+                .userEmail(userEmail)
+                .action(AuditLog.AuditAction.API_CALL)
+                .registrationNumber(normalized)
+                .createdAt(now)
+                .build());
 
         return VehicleSearchResponse.builder()
                 .success(true)
                 .fromCache(false)
                 .registrationNumber(maskRegNo(normalized))
-                .data(maskDataFields(dataMap))
+                .data(maskDataFields(fields.apply(dataMap)))
+                .cachedAt(now)
                 .build();
     }
 
@@ -220,7 +479,7 @@ public class VehicleSearchService {
     }
 
     /** Masks registration-number fields inside the data map. Returns a new map. */
-    private Map<String, Object> maskDataFields(Map<String, Object> data) {
+    static Map<String, Object> maskDataFields(Map<String, Object> data) {
         if (data == null) return null;
         Map<String, Object> masked = new HashMap<>(data);
         for (String key : REG_NO_DATA_KEYS) {
@@ -240,29 +499,27 @@ public class VehicleSearchService {
         String normalized = normalizeRegNo(registrationNumber);
         if (normalized == null || normalized.isBlank()) return null;
 
-        // Audit the unmask action (skip DB write in dev mode)
-        if (!devMode) {
-            try {
-                String userId = getCurrentUserId();
-                String userEmail = getCurrentUserEmail();
-                auditLogRepository.save(AuditLog.builder()
-                        .userId(userId)
-                        .userEmail(userEmail)
-                        .action(AuditLog.AuditAction.UNMASK_REG_NUMBER)
-                        .registrationNumber(normalized)
-                        .details("User acknowledged sensitive-data warning and unmasked registration number")
-                        .createdAt(Instant.now())
-                        .build());
-            } catch (Exception e) {
-                // Don't let audit failure block the unmask response
-                log.warn("Failed to write unmask audit log for {}: {}", normalized, e.getMessage());
-            }
+        // Audit the unmask action (skipped in dev mode)
+        try {
+            String userId = getCurrentUserId();
+            String userEmail = getCurrentUserEmail();
+            auditService.record(AuditLog.builder()
+                    .userId(userId)
+                    .userEmail(userEmail)
+                    .action(AuditLog.AuditAction.UNMASK_REG_NUMBER)
+                    .registrationNumber(normalized)
+                    .details("User acknowledged sensitive-data warning and unmasked registration number")
+                    .createdAt(Instant.now())
+                    .build());
+        } catch (Exception e) {
+            // Don't let audit failure block the unmask response
+            log.warn("Failed to write unmask audit log for {}: {}", normalized, e.getMessage());
         }
 
         return normalized;
     }
 
-    private String normalizeRegNo(String regNo) {
+    static String normalizeRegNo(String regNo) {
         if (regNo == null) return null;
         return regNo.trim().toUpperCase().replaceAll("\\s+", "");
     }
@@ -282,4 +539,12 @@ public class VehicleSearchService {
         }
         return null;
     }
+
+    private AppUser.Role getCurrentUserRole() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof CustomOAuth2User user) {
+            return user.getAppUser().getRole();
+        }
+        return null;
+    }
 }
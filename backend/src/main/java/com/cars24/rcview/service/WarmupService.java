@@ -0,0 +1,191 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.config.MongoConfig;
+import com.cars24.rcview.entity.AppUser;
+import com.cars24.rcview.entity.VehicleCache;
+import com.cars24.rcview.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ReadPreference;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup warm-up, so the first requests after a deploy are not the slow ones. Spring Boot switches
+ * readiness ({@code /actuator/health/readiness}) to ACCEPTING_TRAFFIC only after all ApplicationRunners,
+ * so while this runs the load balancer keeps the instance out of rotation. Steps, each best effort:
+ * open connections in each Mongo pool (primary, cache reads, audit writes), preload the most recent cache entries, run cache-hit lookups through
+ * masking and JSON serialization, round-trip JWTs, and open the TLS connection to Vahan. Nothing is
+ * audited or counted against a quota. The phase stops early at max-duration-ms.
+ */
+@Service
+public class WarmupService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    private final VehicleCacheService cacheService;
+    private final JwtService jwtService;
+    private final VahanApiClient vahanApiClient;
+    private final MongoTemplate mongoTemplate;
+    private final MongoTemplate cacheTemplate;
+    private final MongoTemplate auditTemplate;
+    private final MongoHealthGuard mongoHealthGuard;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.dev-mode:false}")
+    private boolean devMode;
+
+    @Value("${app.warmup.iterations:200}")
+    private int iterations;
+
+    @Value("${app.warmup.mongo-connections:10}")
+    private int mongoConnections;
+
+    @Value("${app.warmup.hot-entries:1000}")
+    private int hotEntries;
+
+    @Value("${app.warmup.vahan-preconnect:true}")
+    private boolean vahanPreconnect;
+
+    @Value("${app.warmup.max-duration-ms:30000}")
+    private long maxDurationMs;
+
+    private long deadline;
+
+    public WarmupService(VehicleCacheService cacheService, JwtService jwtService, VahanApiClient vahanApiClient,
+                         MongoTemplate mongoTemplate, @Qualifier(MongoConfig.CACHE_TEMPLATE) MongoTemplate cacheTemplate,
+                         @Qualifier(MongoConfig.AUDIT_TEMPLATE) MongoTemplate auditTemplate,
+                         MongoHealthGuard mongoHealthGuard, ObjectMapper objectMapper) {
+        this.cacheService = cacheService;
+        this.jwtService = jwtService;
+        this.vahanApiClient = vahanApiClient;
+        this.mongoTemplate = mongoTemplate;
+        this.cacheTemplate = cacheTemplate;
+        this.auditTemplate = auditTemplate;
+        this.mongoHealthGuard = mongoHealthGuard;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+        long start = System.nanoTime();
+        deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+        List<String> done = new ArrayList<>();
+        if (!devMode) {
+            step("mongo connections", this::openMongoConnections, done);
+        }
+        List<VehicleCache> hot = step("hot cache entries", () -> cacheService.preloadRecent(hotEntries, Instant.now()), done);
+        step("cache-hit lookups", () -> cacheHits(hot != null ? hot : List.of()), done);
+        step("token round-trips", this::tokenRoundTrips, done);
+        if (vahanPreconnect && vahanApiClient.isApiKeyConfigured()) {
+            step("vahan connection", () -> {
+                vahanApiClient.preconnect();
+                return null;
+            }, done);
+        }
+        log.info("Warm-up finished in {} ms: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), done);
+    }
+
+    private <T> T step(String name, Callable<T> work, List<String> done) {
+        if (System.nanoTime() >= deadline) {
+            done.add(name + " (skipped, out of time)");
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            T result = work.call();
+            String detail = result instanceof List<?> list ? " x" + list.size() : result instanceof Integer n ? " x" + n : "";
+            done.add(name + detail + " " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+            return result;
+        } catch (Exception e) {
+            done.add(name + " (failed: " + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    /**
+     * Concurrent pings, mongo-connections per pool: each needs its own pooled connection, so every pool
+     * ends up with that many open. A pool is pinged with its own read preference, so the cache pool
+     * connects to the secondary it will read from.
+     */
+    private Integer openMongoConnections() throws InterruptedException {
+        if (!mongoHealthGuard.isAvailable()) return 0;
+        List<Callable<Object>> pings = new ArrayList<>();
+        for (MongoTemplate template : List.of(mongoTemplate, cacheTemplate, auditTemplate)) {
+            ReadPreference readPreference = template.getDb().getReadPreference();
+            pings.addAll(Collections.nCopies(mongoConnections,
+                    () -> template.executeCommand(new Document("ping", 1), readPreference)));
+        }
+        ExecutorService pingers = Executors.newFixedThreadPool(pings.size());
+        try {
+            pingers.invokeAll(pings, remainingMs(), TimeUnit.MILLISECONDS);
+        } finally {
+            pingers.shutdownNow();
+        }
+        return pings.size();
+    }
+
+    /** The cache-hit path minus the audit entry: Mongo lookup, masking and JSON serialization. */
+    private Integer cacheHits(List<VehicleCache> hot) throws Exception {
+        List<VehicleCache> entries = hot.isEmpty() ? List.of(syntheticEntry()) : hot;
+        int n = 0;
+        for (; n < iterations && System.nanoTime() < deadline; n++) {
+            VehicleCache entry = entries.get(n % entries.size());
+            if (!hot.isEmpty()) {
+                cacheService.findValid(entry.getRegNoNormalized(), Instant.now());
+            }
+            objectMapper.writeValueAsBytes(VehicleSearchService.cachedResponse(entry));
+        }
+        return n;
+    }
+
+    private Integer tokenRoundTrips() {
+        AppUser user = AppUser.builder()
+                .id("warmup")
+                .email("warmup@localhost")
+                .role(AppUser.Role.USER)
+                .build();
+        int n = 0;
+        for (; n < iterations && System.nanoTime() < deadline; n++) {
+            // An unknown user id: resolves to null after the same parse, verify and lookup as a real token
+            jwtService.resolveUser(jwtService.createToken(user));
+        }
+        return n;
+    }
+
+    private static VehicleCache syntheticEntry() {
+        Instant now = Instant.now();
+        return VehicleCache.builder()
+                .regNoNormalized("WARMUP0000")
+                .responseData(Map.of("regNo", "WARMUP0000", "owner", "Warm Up", "maker", "Warm Up Motors",
+                        "insuranceUpto", "2030-01-01"))
+                .cachedAt(now)
+                .expiresAt(now.plus(1, ChronoUnit.DAYS))
+                .build();
+    }
+
+    private long remainingMs() {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.cars24.rcview.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void rejectsOverTheLimitWhenThereIsNoQueue() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1000, 0.5, 0, 0);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void fastCallsRaiseTheLimitByAboutOnePerRound() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 1000, 0.5, 0, 0);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(10, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        limiter.tryAcquire();
+        limiter.release(10, false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void slowOrFailedCallCutsTheLimitOncePerInterval() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 2, 10, 60_000, 0.5, 0, 0);
+
+        limiter.tryAcquire();
+        limiter.release(120_000, false);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        limiter.tryAcquire();
+        limiter.release(10, true);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void neverGoesBelowTheMinimumOrAboveTheMaximum() throws Exception {
+        AdaptiveConcurrencyLimiter low = new AdaptiveConcurrencyLimiter(2, 2, 10, 0, 0.1, 0, 0);
+        low.tryAcquire();
+        low.release(1, true);
+        assertThat(low.getLimit()).isEqualTo(2);
+
+        AdaptiveConcurrencyLimiter high = new AdaptiveConcurrencyLimiter(50, 1, 3, 1000, 0.5, 0, 0);
+        assertThat(high.getLimit()).isEqualTo(3);
+        high.tryAcquire();
+        high.release(1, false);
+        assertThat(high.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void queuedCallGetsTheSlotReleasedWhileItWaits() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1000, 0.5, 1, 5000);
+        assertThat(limiter.tryAcquire()).isTrue();
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getQueued() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(limiter.getQueued()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).as("queue of one is full").isFalse();
+
+        limiter.release(10, false);
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void queuedCallIsRejectedWhenItsWaitExpires() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1000, 0.5, 1, 20);
+        limiter.tryAcquire();
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getQueued()).isZero();
+    }
+}
@@ -0,0 +1,60 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditArchiveFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsEveryColumn() throws IOException {
+        Instant t0 = Instant.parse("2026-01-01T00:00:00.123Z");
+        List<AuditLog> entries = List.of(
+                AuditLog.builder().id("1").userId("u1").userEmail("a@x.com").action(AuditLog.AuditAction.SEARCH)
+                        .registrationNumber("KA01AB1234").details("RATE_LIMIT_PER_SECOND").count(7).createdAt(t0).build(),
+                AuditLog.builder().id("2").userId("u2").userEmail("b@x.com").action(AuditLog.AuditAction.CACHE_HIT)
+                        .registrationNumber("KA01AB1234").fromCache(true).createdAt(t0.plusMillis(5)).build(),
+                AuditLog.builder().id("3").userId("u1").userEmail("a@x.com").action(AuditLog.AuditAction.CONFIG_UPDATED)
+                        .metadata(Map.of("rateLimitPerSecond", 5)).createdAt(t0.plusSeconds(60)).build(),
+                AuditLog.builder().id("4").createdAt(t0.plusSeconds(61)).build());
+        Path file = dir.resolve("part-0.rca.gz");
+
+        AuditArchiveFile.write(file, entries);
+        List<AuditLog> read = AuditArchiveFile.read(file);
+
+        assertThat(read).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(entries);
+        assertThat(Files.exists(dir.resolve("part-0.rca.gz.tmp"))).isFalse();
+    }
+
+    @Test
+    void writesAnEmptyFile() throws IOException {
+        Path file = dir.resolve("empty.rca.gz");
+
+        AuditArchiveFile.write(file, List.of());
+
+        assertThat(AuditArchiveFile.read(file)).isEmpty();
+    }
+
+    @Test
+    void rejectsAFileThatIsNotAnArchive() throws IOException {
+        Path file = dir.resolve("other.gz");
+        try (var out = new java.util.zip.GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(new byte[]{1, 2, 3, 4, 0, 0, 0, 0});
+        }
+
+        assertThatThrownBy(() -> AuditArchiveFile.read(file)).isInstanceOf(IOException.class);
+    }
+}
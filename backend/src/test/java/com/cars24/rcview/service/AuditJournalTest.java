@@ -0,0 +1,95 @@
+package com.cars24.rcview.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsAppendedRecordsUntilCommitted() throws IOException {
+        try (AuditJournal journal = new AuditJournal(dir, 1024, false)) {
+            journal.append("a");
+            journal.append("b");
+            journal.append("c");
+
+            AuditJournal.Batch first = journal.read(2);
+            assertThat(strings(first.records())).containsExactly("a", "b");
+            assertThat(strings(journal.read(10).records())).as("not consumed yet").containsExactly("a", "b", "c");
+
+            journal.commit(first.end());
+            assertThat(strings(journal.read(10).records())).containsExactly("c");
+        }
+    }
+
+    @Test
+    void continuesAcrossSegmentsAndDeletesConsumedOnes() throws IOException {
+        try (AuditJournal journal = new AuditJournal(dir, 32, false)) {
+            for (int i = 0; i < 6; i++) {
+                journal.append("record" + i);
+            }
+            AuditJournal.Batch batch = journal.read(100);
+            assertThat(strings(batch.records())).containsExactly("record0", "record1", "record2", "record3", "record4", "record5");
+
+            journal.commit(batch.end());
+            assertThat(segments()).hasSize(1);
+        }
+    }
+
+    @Test
+    void keepsUncommittedRecordsAcrossARestart() throws IOException {
+        try (AuditJournal journal = new AuditJournal(dir, 1024, false)) {
+            journal.append("shipped");
+            journal.commit(journal.read(1).end());
+            journal.append("pending");
+        }
+
+        try (AuditJournal reopened = new AuditJournal(dir, 1024, false)) {
+            List<String> pending = new ArrayList<>();
+            reopened.forEachPending(bytes -> pending.add(new String(bytes, StandardCharsets.UTF_8)));
+            assertThat(pending).containsExactly("pending");
+
+            reopened.append("after");
+            assertThat(strings(reopened.read(10).records())).containsExactly("pending", "after");
+        }
+    }
+
+    @Test
+    void dropsATornRecordAtTheTailOnOpen() throws IOException {
+        try (AuditJournal journal = new AuditJournal(dir, 1024, false)) {
+            journal.append("complete");
+            journal.append("torn");
+        }
+        // Corrupt the last payload byte, so its CRC no longer matches
+        Path segment = segments().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        int tornPayloadEnd = 8 + "complete".length() + 8 + "torn".length();
+        bytes[tornPayloadEnd - 1] ^= 1;
+        Files.write(segment, bytes);
+
+        try (AuditJournal reopened = new AuditJournal(dir, 1024, false)) {
+            assertThat(strings(reopened.read(10).records())).containsExactly("complete");
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static List<String> strings(List<byte[]> records) {
+        return records.stream().map(b -> new String(b, StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,144 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.dto.VehicleSearchResponse;
+import com.cars24.rcview.entity.AppUser;
+import com.cars24.rcview.entity.AuditLog;
+import com.cars24.rcview.entity.VehicleCache;
+import com.cars24.rcview.repository.ReactiveAuditLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The reactive path must count quota and write audit entries exactly like {@link VehicleSearchService}:
+ * events (not documents) plus the ones {@link AuditService} has not written yet, and every entry through
+ * {@link AuditService}.
+ */
+class ReactiveVehicleSearchServiceTest {
+
+    private static final String USER = "u1";
+    private static final String REG_NO = "KA01AB1234";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ReactiveAuditLogRepository auditLogRepository = mock(ReactiveAuditLogRepository.class);
+    private final ReactiveVahanApiClient vahanApiClient = mock(ReactiveVahanApiClient.class);
+    private final VehicleCacheService cacheService = mock(VehicleCacheService.class);
+    private final AuditService auditService = mock(AuditService.class);
+    private final ConfigService configService = mock(ConfigService.class);
+    private final RateLimitService rateLimitService = mock(RateLimitService.class);
+    private final MongoHealthGuard mongoHealthGuard = new MongoHealthGuard(mock(MongoTemplate.class), new SimpleMeterRegistry());
+    private ReactiveVehicleSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        when(configService.getRateLimitPerDayDefault()).thenReturn(5);
+        when(configService.getCacheTtlDays()).thenReturn(3);
+        when(rateLimitService.allowRequest(USER)).thenReturn(true);
+        when(rateLimitService.searchCooldownPassed(USER)).thenReturn(true);
+        when(cacheService.findValid(eq(REG_NO), any())).thenReturn(Optional.empty());
+        service = new ReactiveVehicleSearchService(auditLogRepository, vahanApiClient, cacheService, auditService,
+                configService, rateLimitService, mongoHealthGuard);
+    }
+
+    @Test
+    void dailyLimitCountsStoredEventsPlusPendingOnes() {
+        // 3 events in MongoDB (e.g. one aggregated document) and 2 still queued: the limit of 5 is used up
+        storedEvents(Mono.just(3L));
+        when(auditService.pendingQuotaActions(USER)).thenReturn(2);
+
+        VehicleSearchResponse response = search();
+
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.getErrorMessage()).contains("Daily search limit");
+        verify(auditService, never()).record(any());
+    }
+
+    @Test
+    void cacheHitIsAuditedThroughAuditService() {
+        storedEvents(Mono.empty());
+        when(cacheService.findValid(eq(REG_NO), any())).thenReturn(Optional.of(VehicleCache.builder()
+                .regNoNormalized(REG_NO)
+                .responseData(Map.of("regNo", REG_NO, "owner", "A"))
+                .cachedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build()));
+
+        VehicleSearchResponse response = search();
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.isFromCache()).isTrue();
+        assertThat(recorded().getAction()).isEqualTo(AuditLog.AuditAction.CACHE_HIT);
+    }
+
+    @Test
+    void cacheMissIsStoredThroughVehicleCacheServiceAndAudited() {
+        storedEvents(Mono.just(0L));
+        Map<String, Object> data = Map.of("regNo", REG_NO, "owner", "A");
+        when(vahanApiClient.search(anyString(), eq(USER), any())).thenReturn(Mono.just(VehicleDataResult.ok(data)));
+
+        VehicleSearchResponse response = search();
+
+        assertThat(response.isSuccess()).isTrue();
+        verify(cacheService).save(eq(REG_NO), eq(data), any(), any());
+        assertThat(recorded().getAction()).isEqualTo(AuditLog.AuditAction.API_CALL);
+    }
+
+    @Test
+    void perSecondRejectionIsSummarized() {
+        when(rateLimitService.allowRequest(USER)).thenReturn(false);
+
+        VehicleSearchResponse response = search();
+
+        assertThat(response.getErrorMessage()).contains("Too many requests");
+        ArgumentCaptor<AuditLog> entry = ArgumentCaptor.forClass(AuditLog.class);
+        verify(auditService).recordRejection(entry.capture());
+        assertThat(entry.getValue().getDetails()).isEqualTo("RATE_LIMIT_PER_SECOND");
+        verify(auditService, never()).record(any());
+    }
+
+    @Test
+    void quotaFallsBackToTheLocalCountWhenMongoIsUnreachable() {
+        storedEvents(Mono.error(new DataAccessResourceFailureException("connection refused")));
+        when(rateLimitService.degradedStoredDailyCount(USER)).thenReturn(5L);
+
+        VehicleSearchResponse response = search();
+
+        assertThat(response.getErrorMessage()).contains("Daily search limit");
+        assertThat(mongoHealthGuard.isAvailable()).isFalse();
+    }
+
+    private void storedEvents(Mono<Long> sum) {
+        when(auditLogRepository.sumEventsByUserIdAndActionInAndCreatedAtAfter(eq(USER), eq(RateLimitService.DAILY_LIMIT_ACTIONS), any()))
+                .thenReturn(sum);
+    }
+
+    private VehicleSearchResponse search() {
+        return service.search(REG_NO, USER, "u1@example.com", AppUser.Role.USER).block(TIMEOUT);
+    }
+
+    private AuditLog recorded() {
+        ArgumentCaptor<AuditLog> entry = ArgumentCaptor.forClass(AuditLog.class);
+        verify(auditService).record(entry.capture());
+        assertThat(entry.getValue().getUserId()).isEqualTo(USER);
+        assertThat(entry.getValue().getRegistrationNumber()).isEqualTo(REG_NO);
+        return entry.getValue();
+    }
+}
@@ -0,0 +1,90 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.RecentSearches;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentSearchRingTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void addsNewestFirstAndOverwritesTheOldestWhenFull() {
+        RecentSearchRing ring = new RecentSearchRing(3, List.of());
+        for (int i = 1; i <= 4; i++) {
+            ring.add("KA0" + i, T0.plusSeconds(i));
+        }
+
+        assertThat(regNos(ring)).containsExactly("KA04", "KA03", "KA02");
+    }
+
+    @Test
+    void searchingAgainMovesToTheFrontAndKeepsTheId() {
+        RecentSearchRing ring = new RecentSearchRing(3, List.of());
+        ring.add("KA01", T0);
+        ring.add("KA02", T0.plusSeconds(1));
+        ring.add("KA03", T0.plusSeconds(2));
+        String id = ring.newestFirst().get(2).getId();
+
+        ring.add("KA01", T0.plusSeconds(3));
+
+        assertThat(regNos(ring)).containsExactly("KA01", "KA03", "KA02");
+        assertThat(ring.newestFirst().get(0).getId()).isEqualTo(id);
+        assertThat(ring.find(id).getSearchedAt()).isEqualTo(T0.plusSeconds(3));
+    }
+
+    @Test
+    void removingFromTheMiddleOfAWrappedRingKeepsTheOrder() {
+        RecentSearchRing ring = new RecentSearchRing(3, List.of());
+        for (int i = 1; i <= 5; i++) {
+            ring.add("KA0" + i, T0.plusSeconds(i));
+        }
+
+        ring.add("KA04", T0.plusSeconds(6));
+        ring.add("KA06", T0.plusSeconds(7));
+
+        assertThat(regNos(ring)).containsExactly("KA06", "KA04", "KA05");
+    }
+
+    @Test
+    void loadedRingDropsStoredItemsBeyondCapacity() {
+        RecentSearchRing ring = new RecentSearchRing(2, List.of(item("a", "KA01"), item("b", "KA02"), item("c", "KA03")));
+
+        assertThat(ring.isLoaded()).isTrue();
+        assertThat(regNos(ring)).containsExactly("KA01", "KA02");
+        assertThat(ring.find("c")).isNull();
+    }
+
+    @Test
+    void mergePutsStoredSearchesBehindNewOnesWithoutDuplicates() {
+        RecentSearchRing ring = new RecentSearchRing(3);
+        ring.add("KA02", T0.plusSeconds(10));
+
+        boolean changed = ring.merge(List.of(item("a", "KA01"), item("b", "KA02"), item("c", "KA03")));
+
+        assertThat(changed).isTrue();
+        assertThat(ring.isLoaded()).isTrue();
+        assertThat(regNos(ring)).containsExactly("KA02", "KA01", "KA03");
+        assertThat(ring.merge(List.of(item("d", "KA04")))).isFalse();
+    }
+
+    @Test
+    void mergeIntoAnUntouchedRingIsNoChange() {
+        RecentSearchRing ring = new RecentSearchRing(3);
+
+        assertThat(ring.merge(List.of(item("a", "KA01")))).isFalse();
+        assertThat(regNos(ring)).containsExactly("KA01");
+    }
+
+    private static RecentSearches.Item item(String id, String regNo) {
+        return new RecentSearches.Item(id, regNo, T0);
+    }
+
+    private static List<String> regNos(RecentSearchRing ring) {
+        return ring.newestFirst().stream().map(RecentSearches.Item::getRegNoNormalized).toList();
+    }
+}
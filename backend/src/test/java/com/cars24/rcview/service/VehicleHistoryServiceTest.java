@@ -0,0 +1,132 @@
+package com.cars24.rcview.service;
+
+import com.cars24.rcview.entity.VehicleCache;
+import com.cars24.rcview.entity.VehicleHistory;
+import com.cars24.rcview.repository.VehicleHistoryRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VehicleHistoryServiceTest {
+
+    private static final String REG_NO = "KA01AB1234";
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final List<VehicleHistory> stored = new ArrayList<>();
+    private VehicleHistoryService history;
+
+    @BeforeEach
+    void setUp() {
+        VehicleHistoryRepository repository = mock(VehicleHistoryRepository.class);
+        when(repository.save(any())).thenAnswer(inv -> {
+            stored.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(repository.existsByRegNoNormalized(anyString()))
+                .thenAnswer(inv -> stored.stream().anyMatch(v -> v.getRegNoNormalized().equals(inv.getArgument(0))));
+        when(repository.findByRegNoNormalizedOrderByFetchedAtAsc(anyString()))
+                .thenAnswer(inv -> stored.stream()
+                        .filter(v -> v.getRegNoNormalized().equals(inv.getArgument(0)))
+                        .sorted(Comparator.comparing(VehicleHistory::getFetchedAt))
+                        .toList());
+        history = new VehicleHistoryService(repository);
+        ReflectionTestUtils.setField(history, "enabled", true);
+    }
+
+    @Test
+    void firstVersionIsABaselineAndLaterOnesOnlyTheirChanges() {
+        VehicleCache v1 = entry(0, Map.of("owner", "A", "insuranceUpto", "2026-06-01", "puc", "2026-03-01"));
+        VehicleCache v2 = entry(1, Map.of("owner", "B", "insuranceUpto", "2026-06-01", "financer", "HDFC"));
+
+        history.record(null, v1);
+        history.record(v1, v2);
+
+        assertThat(stored).hasSize(2);
+        VehicleHistory delta = stored.get(1);
+        assertThat(delta.isBaseline()).isFalse();
+        assertThat(delta.getChanged()).containsOnly(Map.entry("owner", "B"), Map.entry("financer", "HDFC"));
+        assertThat(delta.getRemoved()).containsExactly("puc");
+    }
+
+    @Test
+    void timelineReplaysTheDeltasOverTheBaseline() {
+        VehicleCache v1 = entry(0, Map.of("owner", "A", "puc", "2026-03-01"));
+        VehicleCache v2 = entry(1, Map.of("owner", "B", "puc", "2026-03-01"));
+        VehicleCache v3 = entry(2, Map.of("owner", "C"));
+        history.record(null, v1);
+        history.record(v1, v2);
+        history.record(v2, v3);
+
+        List<Map<String, Object>> timeline = history.timeline(REG_NO);
+
+        assertThat(timeline).hasSize(3);
+        assertThat(timeline.get(0)).containsEntry("baseline", true).containsEntry("data", v1.getResponseData());
+        assertThat(timeline.get(1).get("changes")).isEqualTo(Map.of("owner", change("A", "B")));
+        Map<String, Object> removedPuc = new LinkedHashMap<>();
+        removedPuc.put("from", "2026-03-01");
+        assertThat(timeline.get(2).get("changes")).isEqualTo(Map.of("owner", change("B", "C"), "puc", removedPuc));
+        assertThat(timeline.get(2)).containsEntry("fetchedAt", T0.plusSeconds(2));
+    }
+
+    @Test
+    void unchangedRefreshAddsNothing() {
+        VehicleCache v1 = entry(0, Map.of("owner", "A", "address", Map.of("city", "Pune", "pin", 411001)));
+        // As read back from MongoDB: nested objects are BSON Documents
+        VehicleCache v2 = entry(1, Map.of("owner", "A", "address", new Document("city", "Pune").append("pin", 411001)));
+        history.record(null, v1);
+
+        history.record(v1, v2);
+
+        assertThat(stored).hasSize(1);
+    }
+
+    @Test
+    void entryCachedBeforeHistoryGetsItsBaselineOnItsFirstChange() {
+        VehicleCache old = entry(0, Map.of("owner", "A"));
+        VehicleCache refreshed = entry(1, Map.of("owner", "B"));
+
+        history.record(old, refreshed);
+
+        assertThat(stored).extracting(VehicleHistory::isBaseline).containsExactly(true, false);
+        assertThat(history.timeline(REG_NO).get(1).get("changes")).isEqualTo(Map.of("owner", change("A", "B")));
+    }
+
+    @Test
+    void recordsNothingWhenDisabled() {
+        ReflectionTestUtils.setField(history, "enabled", false);
+
+        history.record(null, entry(0, Map.of("owner", "A")));
+
+        assertThat(stored).isEmpty();
+    }
+
+    private static VehicleCache entry(int second, Map<String, Object> data) {
+        return VehicleCache.builder()
+                .regNoNormalized(REG_NO)
+                .responseData(data)
+                .cachedAt(T0.plusSeconds(second))
+                .expiresAt(T0.plusSeconds(86_400))
+                .build();
+    }
+
+    private static Map<String, Object> change(Object from, Object to) {
+        Map<String, Object> change = new LinkedHashMap<>();
+        change.put("from", from);
+        change.put("to", to);
+        return change;
+    }
+}
@@ -97,6 +97,7 @@ export type VehicleSearchResponse = {
   registrationNumber?: string;
   data?: Record<string, unknown>;
   errorMessage?: string;
+  cachedAt?: string;
 };
 
 export type RateLimitInfo = {
@@ -119,9 +119,8 @@ export default function Dashboard() {
       setSearchParams({ q: regNo.trim() })
       setRegistrationNumber(regNo.trim())
 
-      const { data, status, error } = await api<VehicleSearchResponse>('/vehicle/search', {
-        method: 'POST',
-        body: JSON.stringify({ registrationNumber: regNo.trim() }),
+      // GET so the browser can revalidate a payload it already has (ETag / 304) instead of re-downloading it
+      const { data, status, error } = await api<VehicleSearchResponse>(`/vehicle/${encodeURIComponent(regNo.trim())}`, {
         timeout: 45000, // external Vahan API can be slow
       })
 